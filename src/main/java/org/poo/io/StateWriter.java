@@ -44,7 +44,7 @@ public final class StateWriter {
      * @throws IOException in case of an IO error
      */
     public static void dump(final File f) throws IOException {
-        BankingSystem.log("Dumping to " + f.getAbsolutePath());
+        BankingSystem.log(() -> "Dumping to " + f.getAbsolutePath());
         ObjectWriter writer = mapper.writerWithDefaultPrettyPrinter();
         writer.writeValue(f, outputNodes);
     }
@@ -4,23 +4,41 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Getter;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.BankingException;
 import org.poo.system.exceptions.InputException;
-import org.poo.system.exchange.ComposedExchange;
+import org.poo.system.exchange.Currency;
 import org.poo.system.exchange.Exchange;
 import org.poo.system.exchange.ExchangeProvider;
-import org.poo.system.storage.MappedStorage;
+import org.poo.system.exchange.ExchangeProviderFactory;
+import org.poo.system.history.TransactionStore;
+import org.poo.system.journal.CommandJournal;
+import org.poo.system.payments.PendingPayment;
+import org.poo.system.snapshot.LedgerSnapshot;
+import org.poo.system.snapshot.SnapshotCapture;
+import org.poo.system.snapshot.SnapshotWriter;
+import org.poo.system.provider.InputProfile;
+import org.poo.system.provider.ProviderSelector;
 import org.poo.system.storage.StorageProvider;
+import org.poo.system.storage.StorageProviderFactory;
 import org.poo.system.commerce.Commerciant;
+import org.poo.system.user.Account;
 import org.poo.system.user.User;
+import org.poo.system.user.plan.FeeSchedule;
+import org.poo.system.user.plan.UpgradeProcessor;
+import org.poo.utils.AsyncAppender;
+import org.poo.utils.TimerWheel;
 import org.poo.utils.Utils;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Getter
 public final class BankingSystem {
@@ -30,10 +48,64 @@ public final class BankingSystem {
 
     private ExchangeProvider exchangeProvider;
     private StorageProvider storageProvider;
+    // Factory of the selected storage, reused when restoring a snapshot
+    private StorageProviderFactory storageFactory;
+    private FeeSchedule feeSchedule;
+    // Automatic plan upgrades, applied after the command that triggered them
+    private UpgradeProcessor upgradeProcessor;
+
+    // Transaction records of every account, replaced on every reset
+    private TransactionStore transactionStore;
+
+    // Journal of the run commands, null if journaling is disabled
+    private CommandJournal journal;
+
+    // Writer of the periodic snapshots, null if snapshots are disabled
+    private SnapshotWriter snapshotWriter;
+    // The last started capture, users are copied before they change until it finishes
+    private SnapshotCapture capture;
+    // Number of input commands covered by the restored snapshot
+    private int restoredCommands;
+
+    // Pending payments waiting to be auto-rejected, keyed by timestamp
+    private TimerWheel<PendingPayment> paymentExpiry;
 
     // Set to true to see unhandled errors and detailed messages
     public static final boolean VERBOSE_LOGGING = false;
 
+    // Number of log lines waiting to be printed before new ones are dropped
+    public static final int LOG_BUFFER_SIZE = 8192;
+    private static final AsyncAppender LOG_APPENDER =
+            VERBOSE_LOGGING ? new AsyncAppender(System.out, LOG_BUFFER_SIZE) : null;
+
+    // Number of timestamps a split payment can stay unaddressed
+    // before being rejected (0 means it never expires)
+    public static final int SPLIT_PAYMENT_EXPIRY = 0;
+
+    // When to journal the commands ("disabled", "before_execution" or "after_execution"),
+    // if the run didn't complete, the next initialization with the same input
+    // replays the journaled commands from their records
+    public static final CommandJournal.Mode JOURNAL_MODE = CommandJournal.Mode.fromString(
+            System.getProperty("banking.journal", CommandJournal.Mode.DISABLED.toString())
+    );
+    // Number of journaled commands forced to disk together
+    public static final int JOURNAL_BATCH_SIZE = Integer.getInteger("banking.journalBatchSize", 64);
+    private static final String JOURNAL_DIRECTORY = "journal";
+
+    // Number of commands between two snapshots of the storage (0 disables them),
+    // the snapshot is restored on the next initialization with the same input
+    // if the run didn't complete
+    public static final int SNAPSHOT_INTERVAL =
+            Integer.getInteger("banking.snapshotInterval", 0);
+    private static final String SNAPSHOT_DIRECTORY = "snapshots";
+
+    // The storage and exchange implementations, selected by the name of their factory
+    // ("mapped" / "memory-efficient", "composed" / "basic") or picked for each input ("auto")
+    public static final String STORAGE_PROVIDER =
+            System.getProperty("banking.storage", ProviderSelector.AUTO);
+    public static final String EXCHANGE_PROVIDER =
+            System.getProperty("banking.exchange", ProviderSelector.AUTO);
+
     private BankingSystem() {
 
     }
@@ -58,11 +130,28 @@ public final class BankingSystem {
 
     /**
      * Resets the system's state
+     *
+     * @param profile the profile of the next input, used to select the providers
+     * @throws IOException if the transaction store can't be replaced
      */
-    private void reset() {
+    private void reset(final InputProfile profile) throws IOException {
         commands.clear();
-        instance.exchangeProvider = new ComposedExchange();
-        instance.storageProvider = new MappedStorage();
+        if (instance.transactionStore != null) {
+            instance.transactionStore.close();
+        }
+        instance.transactionStore = TransactionStore.create();
+        Currency.reset();
+        User.resetIds();
+        Account.resetIds();
+        instance.exchangeProvider = ProviderSelector
+                .select(ExchangeProviderFactory.class, EXCHANGE_PROVIDER, profile)
+                .create();
+        instance.storageFactory = ProviderSelector
+                .select(StorageProviderFactory.class, STORAGE_PROVIDER, profile);
+        instance.storageProvider = instance.storageFactory.create();
+        instance.feeSchedule = new FeeSchedule();
+        instance.upgradeProcessor = new UpgradeProcessor();
+        instance.paymentExpiry = new TimerWheel<>(0);
 
         Utils.resetRandom();
     }
@@ -78,11 +167,13 @@ public final class BankingSystem {
             instance = new BankingSystem();
         }
 
-        instance.reset();
-        testNumber++;
-        log("Starting test [" + testNumber + "] ...");
         String jsonString = Files.readString(file.toPath());
         JsonNode root = new ObjectMapper().readTree(jsonString);
+        List<Exchange> exchanges = Exchange.readArray(root.get("exchangeRates"));
+
+        testNumber++;
+        log(() -> "Starting test [" + testNumber + "] ...");
+        instance.reset(InputProfile.of(root, exchanges));
 
         // Read data from root
 
@@ -96,11 +187,8 @@ public final class BankingSystem {
         Commerciant.readArray(commerciantsNode)
                 .forEach(commerciant -> instance.storageProvider.registerCommerciant(commerciant));
 
-        // Read exchange rates
-        JsonNode exchangeNode = root.get("exchangeRates");
-        getExchangeProvider().registerExchanges(
-                Exchange.readArray(exchangeNode)
-        );
+        // Register exchange rates
+        getExchangeProvider().registerExchanges(exchanges);
 
 
 
@@ -111,26 +199,254 @@ public final class BankingSystem {
         }
         instance.getCommands().addAll(Command.readArray(commandsNode));
 
+        // Open the journal of this input, recovering the commands of an interrupted run
+        instance.journal = null;
+        boolean recoverable = true;
+        if (JOURNAL_MODE != CommandJournal.Mode.DISABLED) {
+            Path journalDirectory = Path.of(JOURNAL_DIRECTORY, file.getName());
+            instance.journal = CommandJournal.open(journalDirectory, JOURNAL_BATCH_SIZE);
+
+            // A journal written for another input can't be replayed, start over
+            if (!journalMatchesInput()) {
+                log("Discarding the journal, it doesn't match the input");
+                instance.journal.discard();
+                instance.journal = CommandJournal.open(journalDirectory, JOURNAL_BATCH_SIZE);
+                recoverable = false;
+            }
+        }
+
+        // Restore the snapshot of this input, skipping the commands it covers
+        instance.snapshotWriter = null;
+        instance.capture = null;
+        instance.restoredCommands = 0;
+        if (SNAPSHOT_INTERVAL > 0) {
+            Path snapshotDirectory = Path.of(SNAPSHOT_DIRECTORY, file.getName());
+            if (recoverable) {
+                LedgerSnapshot snapshot = SnapshotWriter.read(snapshotDirectory);
+                if (snapshot != null) {
+                    restore(snapshot);
+                }
+            } else {
+                // Taken during the same run as the discarded journal
+                SnapshotWriter.delete(snapshotDirectory);
+            }
+            instance.snapshotWriter = new SnapshotWriter(snapshotDirectory);
+        }
+
+    }
+
+    /**
+     * Checks that the recovered journal was written while running the current input
+     *
+     * @return whether the journaled commands are the same as the first input commands
+     */
+    private static boolean journalMatchesInput() {
+        List<JsonNode> recovered = instance.journal.getRecoveredCommands();
+        List<Command> commandList = instance.getCommands();
+        if (recovered.size() > commandList.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < recovered.size(); i++) {
+            if (!recovered.get(i).equals(((Command.Base) commandList.get(i)).getSource())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Replaces the storage with the state saved in a snapshot
+     *
+     * @param snapshot the snapshot to restore
+     * @throws IOException if the snapshot is corrupted
+     */
+    private static void restore(final LedgerSnapshot snapshot) throws IOException {
+        long start = System.nanoTime();
+
+        // Commerciants come from the input, their counters from the snapshot
+        StorageProvider restored = instance.storageFactory.create();
+        instance.storageProvider.getCommerciants().forEach(restored::registerCommerciant);
+        instance.storageProvider = restored;
+
+        // The restored ledger replaces the one read from the input, reuse its ids
+        User.resetIds();
+        Account.resetIds();
+        snapshot.restoreInto(restored, instance.transactionStore);
+        timestamp = snapshot.getTimestamp();
+        instance.restoredCommands = snapshot.getCommandCount();
+
+        log(
+                () -> "Restored snapshot of "
+                        + snapshot.getCommandCount()
+                        + " commands in "
+                        + TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)
+                        + "us"
+        );
+    }
+
+    /**
+     * Starts capturing the storage, the snapshot is encoded and written in the background
+     * </br>
+     * Only one capture runs at a time, if the previous one didn't finish yet
+     * this interval is skipped
+     *
+     * @param commandCount the number of input commands run so far
+     * @throws IOException if a previous snapshot couldn't be written
+     */
+    private static void takeSnapshot(final int commandCount) throws IOException {
+        if (instance.capture != null && !instance.capture.isFinished()) {
+            log(() -> "Skipped snapshot of " + commandCount + " commands, still capturing");
+            return;
+        }
+
+        long start = System.nanoTime();
+        instance.capture = SnapshotCapture.start(
+                instance.storageProvider,
+                instance.transactionStore,
+                commandCount
+        );
+        instance.snapshotWriter.submit(instance.capture);
+        log(
+                () -> "Started snapshot of "
+                        + commandCount
+                        + " commands in "
+                        + TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)
+                        + "us"
+        );
+    }
+
+    /**
+     * Called before the state of a user (or of an account it owns) changes,
+     * so a snapshot being captured copies the user first
+     *
+     * @param user the user about to change
+     */
+    public static void beforeUpdate(final User user) {
+        if (instance.capture != null) {
+            instance.capture.preserve(user);
+        }
+    }
+
+    /**
+     * Runs the system's stored commands, starting after the ones covered by the restored snapshot.
+     * The commands recovered from the journal are replayed from their records,
+     * without being journaled twice, the input only provides the commands after them
+     *
+     * @throws IOException if the commands can't be journaled or snapshotted
+     */
+    public static void run() throws IOException {
+        List<Command> commandList = instance.getCommands();
+        // Input commands already covered by the restored state
+        int done = Math.min(instance.restoredCommands, commandList.size());
+        // Commands already journaled, checked against the input when the journal was opened
+        List<JsonNode> recovered = instance.journal == null
+                ? List.of()
+                : instance.journal.getRecoveredCommands();
+        int journaled = recovered.size();
+
+        for (int i = done; i < commandList.size(); i++) {
+            Command command = i < journaled
+                    ? Command.read(recovered.get(i))
+                    : commandList.get(i);
+            boolean append = i >= journaled;
+            if (append && JOURNAL_MODE == CommandJournal.Mode.BEFORE_EXECUTION) {
+                instance.journal.append((Command.Base) command);
+            }
+
+            runCommand(command);
+
+            if (append && JOURNAL_MODE == CommandJournal.Mode.AFTER_EXECUTION) {
+                instance.journal.append((Command.Base) command);
+            }
+
+            if (SNAPSHOT_INTERVAL > 0 && (i + 1) % SNAPSHOT_INTERVAL == 0) {
+                takeSnapshot(i + 1);
+            }
+        }
+
+        // The run completed, nothing left to recover
+        if (instance.journal != null) {
+            instance.journal.discard();
+            instance.journal = null;
+        }
+
+        if (instance.snapshotWriter != null) {
+            instance.snapshotWriter.discard();
+            instance.snapshotWriter = null;
+            instance.capture = null;
+        }
+
+        // Every output was generated, release the transaction records
+        instance.transactionStore.close();
+        instance.transactionStore = null;
+
+        flushLog();
     }
 
     /**
-     * Runs the system's stored commands
+     * Runs a single command along with the events scheduled around it
+     *
+     * @param command the command to run
      */
-    public static void run() {
-        for (Command command : instance.getCommands()) {
+    private static void runCommand(final Command command) {
+        timestamp = ((Command.Base) command).getTimestamp();
+
+        // Reject the payments that weren't addressed in time
+        instance.paymentExpiry.advance(timestamp, payment -> {
             try {
-                timestamp = ((Command.Base) command).getTimestamp();
-                command.execute();
+                payment.expire();
             } catch (BankingException e) {
-                if (!e.handle()) {
-                    if (VERBOSE_LOGGING) {
-                        System.err.println(
-                                "[" + timestamp + "] Unhandled exception: "
-                                        + e.getDetailedMessage()
-                        );
-                    }
-                }
+                handleException(e);
+            }
+        });
 
+        try {
+            handleResult(command.execute());
+        } catch (BankingException e) {
+            handleException(e);
+        }
+
+        // Payments apply their upgrades right after their fees, this only catches
+        // a payment that failed in between, so its upgrade isn't left for the next command
+        instance.upgradeProcessor.drain();
+    }
+
+    /**
+     * Handles the outcome of a command,
+     * logging the failure if it couldn't be handled
+     *
+     * @param result the outcome to handle
+     */
+    private static void handleResult(final CommandResult result) {
+        if (result.isSuccess()) {
+            return;
+        }
+
+        if (!result.handle()) {
+            if (VERBOSE_LOGGING) {
+                System.err.println(
+                        "[" + timestamp + "] Unhandled failure: "
+                                + result.getDetailedMessage()
+                );
+            }
+        }
+    }
+
+    /**
+     * Handles an exception thrown while running the system,
+     * logging it if it couldn't be handled
+     *
+     * @param e the exception to handle
+     */
+    private static void handleException(final BankingException e) {
+        if (!e.handle()) {
+            if (VERBOSE_LOGGING) {
+                System.err.println(
+                        "[" + timestamp + "] Unhandled exception: "
+                                + e.getDetailedMessage()
+                );
             }
         }
     }
@@ -145,7 +461,39 @@ public final class BankingSystem {
             return;
         }
 
-        System.out.println("[" + timestamp + "] " + message);
+        LOG_APPENDER.append("[" + timestamp + "] " + message);
+    }
+
+    /**
+     * Prints a message if verbose logging is enabled
+     * </br>
+     * The message is only built when it's printed, use this
+     * instead of concatenating the message on the hot paths.
+     * It's built on the calling thread, the printing happens in the background
+     *
+     * @param message formats the message to print
+     */
+    public static void log(final Supplier<String> message) {
+        if (!VERBOSE_LOGGING) {
+            return;
+        }
+
+        LOG_APPENDER.append("[" + timestamp + "] " + message.get());
+    }
+
+    /**
+     * Waits for the logged messages to be printed
+     */
+    private static void flushLog() {
+        if (!VERBOSE_LOGGING) {
+            return;
+        }
+
+        try {
+            LOG_APPENDER.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     public static ExchangeProvider getExchangeProvider() {
@@ -156,4 +504,16 @@ public final class BankingSystem {
         return instance.storageProvider;
     }
 
+    public static FeeSchedule getFeeSchedule() {
+        return instance.feeSchedule;
+    }
+
+    public static UpgradeProcessor getUpgradeProcessor() {
+        return instance.upgradeProcessor;
+    }
+
+    public static TransactionStore getTransactionStore() {
+        return instance.transactionStore;
+    }
+
 }
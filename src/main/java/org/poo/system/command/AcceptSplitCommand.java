@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OperationException;
 import org.poo.system.exceptions.UserNotFoundException;
@@ -34,7 +35,7 @@ public class AcceptSplitCommand extends Command.Base {
      * pending payments of the requested type
      */
     @Override
-    public void execute() throws UserNotFoundException, OperationException {
+    public CommandResult execute() throws UserNotFoundException, OperationException {
         // Retrieve the user
         User targetUser;
         try {
@@ -49,6 +50,8 @@ public class AcceptSplitCommand extends Command.Base {
 
         // Accepts the payment, notify the subject
         targetUser.getFirstPending(paymentType).accept(targetUser);
+
+        return CommandResult.success();
     }
 
     /**
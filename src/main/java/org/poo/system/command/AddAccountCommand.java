@@ -5,8 +5,10 @@ import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.Transaction;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.UserNotFoundException;
+import org.poo.system.storage.StorageProvider;
 import org.poo.system.user.Account;
 import org.poo.system.user.BusinessAccount;
 import org.poo.system.user.User;
@@ -38,23 +40,30 @@ public class AddAccountCommand extends Command.Base {
      * @throws UserNotFoundException if the user could not be found
      */
     @Override
-    public void execute() throws UserNotFoundException {
+    public CommandResult execute() throws UserNotFoundException {
 
         // Get user by using the email
         User targetUser = BankingSystem.getStorageProvider().getUserByEmail(this.email);
 
+        // Draw an IBAN that isn't used by an account or a commerciant
+        StorageProvider storage = BankingSystem.getStorageProvider();
+        String iban = Utils.generateIBAN(
+                candidate -> storage.findAccountByIban(candidate).isPresent()
+                        || storage.findCommerciantByIban(candidate).isPresent()
+        );
+
         // Create the account
         Account newAccount;
         if (accountType == Account.Type.BUSINESS) {
             newAccount = new BusinessAccount(
                     targetUser,
-                    Utils.generateIBAN(),
+                    iban,
                     this.currency
             );
         } else {
             newAccount = new Account(
                     targetUser,
-                    Utils.generateIBAN(),
+                    iban,
                     this.currency,
                     this.accountType
             );
@@ -69,12 +78,14 @@ public class AddAccountCommand extends Command.Base {
         BankingSystem.getStorageProvider().registerAccount(newAccount);
 
         BankingSystem.log(
-                "Created new account: "
+                () -> "Created new account: "
                 + newAccount.getAccountIBAN()
         );
 
         // Add creation transaction to the account
         newAccount.getTransactions().add(new Transaction.Base("New account created", timestamp));
+
+        return CommandResult.success();
     }
 
     /**
@@ -86,9 +97,9 @@ public class AddAccountCommand extends Command.Base {
     public static Command.Base fromNode(final JsonNode node) throws InputException {
 
         String email = IOUtils.readStringChecked(node, "email");
-        String currency = IOUtils.readStringChecked(node, "currency");
-
-        BankingSystem.getExchangeProvider().registerCurrency(currency);
+        String currency = BankingSystem.getExchangeProvider().registerCurrency(
+                IOUtils.readStringChecked(node, "currency")
+        ).getCode();
 
         Account.Type accountType = Account.Type.fromString(
                 IOUtils.readStringChecked(node, "accountType")
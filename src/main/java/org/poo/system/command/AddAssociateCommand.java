@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OperationException;
 import org.poo.system.exceptions.OwnershipException;
@@ -39,7 +40,8 @@ public class AddAssociateCommand extends Command.Base {
      * @throws OperationException if the user is already an associate
      */
     @Override
-    public void execute() throws OwnershipException, UserNotFoundException, OperationException {
+    public CommandResult execute()
+            throws OwnershipException, UserNotFoundException, OperationException {
         // Retrieve the account and user
         Account targetAccount;
         User targetUser;
@@ -82,6 +84,7 @@ public class AddAssociateCommand extends Command.Base {
             );
         }
 
+        return CommandResult.success();
     }
 
     /**
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OperationException;
 import org.poo.system.exceptions.OwnershipException;
@@ -35,7 +36,7 @@ public class AddFundsCommand extends Command.Base {
      * @throws OperationException if the user is not authorized to deposit
      */
     @Override
-    public void execute() throws OwnershipException, OperationException {
+    public CommandResult execute() throws OwnershipException, OperationException {
         // Retrieve the account from the storage provider
         Account targetAccount = BankingSystem.getStorageProvider().getAccountByIban(this.account);
         User targetUser = BankingSystem.getStorageProvider().getUserByEmail(email);
@@ -45,6 +46,8 @@ public class AddFundsCommand extends Command.Base {
                 targetUser,
                 new Amount(amount, targetAccount.getCurrency())
         );
+
+        return CommandResult.success();
     }
 
     /**
@@ -5,11 +5,13 @@ import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.Transaction;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OperationException;
 import org.poo.system.exceptions.OwnershipException;
 import org.poo.system.exceptions.handlers.CommandDescriptionHandler;
 import org.poo.system.exchange.Amount;
+import org.poo.system.exchange.Money;
 import org.poo.system.user.Account;
 
 public class AddInterestCommand extends Command.Base {
@@ -28,7 +30,7 @@ public class AddInterestCommand extends Command.Base {
      * @throws OperationException if the account is not a savings one
      */
     @Override
-    public void execute() throws OwnershipException, OperationException {
+    public CommandResult execute() throws OwnershipException, OperationException {
         // Retrieve the account from the storage provider
         Account targetAccount = BankingSystem.getStorageProvider().getAccountByIban(account);
 
@@ -43,7 +45,7 @@ public class AddInterestCommand extends Command.Base {
 
         // Compute the interest
         Amount rateAmount = new Amount(
-                targetAccount.getFunds().total()
+                Money.toTotal(targetAccount.getBalance())
                         * targetAccount.getInterest(),
                 targetAccount.getCurrency()
         );
@@ -60,6 +62,7 @@ public class AddInterestCommand extends Command.Base {
                         .setCurrency(targetAccount.getCurrency())
         );
 
+        return CommandResult.success();
     }
 
     /**
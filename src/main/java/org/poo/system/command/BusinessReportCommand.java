@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.commerce.CommerciantSpending;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OperationException;
@@ -15,7 +16,6 @@ import org.poo.system.user.Account;
 import org.poo.system.user.BusinessAccount;
 
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.NoSuchElementException;
 
 public final class BusinessReportCommand extends Command.Base {
@@ -78,7 +78,7 @@ public final class BusinessReportCommand extends Command.Base {
      * @throws OperationException if the account is not a business one
      */
     @Override
-    public void execute() throws OwnershipException, OperationException {
+    public CommandResult execute() throws OwnershipException, OperationException {
         // Retrieve the account
         Account targetAccount;
         try {
@@ -121,15 +121,19 @@ public final class BusinessReportCommand extends Command.Base {
 
                 for (BusinessAccount.AssociateData aData : bAccount.getAssociateDataList()) {
                     // Add the associate to it's corresponding array node
-                    switch (aData.role()) {
-                        case MANAGER -> managerArray.add(aData.toNode());
-                        case EMPLOYEE -> employeeArray.add(aData.toNode());
+                    switch (aData.getRole()) {
+                        case MANAGER -> managerArray.add(
+                                aData.toNode(startTimestamp, endTimestamp)
+                        );
+                        case EMPLOYEE -> employeeArray.add(
+                                aData.toNode(startTimestamp, endTimestamp)
+                        );
                         default -> {
                         }
                     }
                     // Add their deposit and spending
-                    totalSpent += aData.spent().total();
-                    totalDeposited += aData.deposited().total();
+                    totalSpent += aData.getSpent().sum(startTimestamp, endTimestamp);
+                    totalDeposited += aData.getDeposited().sum(startTimestamp, endTimestamp);
 
                 }
 
@@ -140,19 +144,17 @@ public final class BusinessReportCommand extends Command.Base {
 
                 ArrayNode commerciantsArray = root.putArray("commerciants");
 
-                // Sort commerciant spendings by name
-                bAccount.getCommerciantSpendingList().sort(
-                        Comparator.comparing(CommerciantSpending::getName)
-                );
-
-                // Add each commerciant spending
+                // Add each commerciant paid during the interval (already sorted by name)
                 for (CommerciantSpending spending : bAccount.getCommerciantSpendingList()) {
-                    commerciantsArray.add(spending.toNode());
+                    if (spending.getReceived().hasValues(startTimestamp, endTimestamp)) {
+                        commerciantsArray.add(spending.toNode(startTimestamp, endTimestamp));
+                    }
                 }
             }
 
         });
 
+        return CommandResult.success();
     }
 
     /**
@@ -5,10 +5,9 @@ import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.Transaction;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OperationException;
-import org.poo.system.exceptions.OwnershipException;
-import org.poo.system.exceptions.UserNotFoundException;
 import org.poo.system.exceptions.handlers.CommandDescriptionHandler;
 import org.poo.system.exceptions.handlers.TransactionHandler;
 import org.poo.system.exchange.Amount;
@@ -16,6 +15,8 @@ import org.poo.system.user.Account;
 import org.poo.system.user.Card;
 import org.poo.system.user.User;
 
+import java.util.Optional;
+
 public class CashWithdrawCommand extends Command.Base {
 
     private final String cardNumber;
@@ -39,45 +40,41 @@ public class CashWithdrawCommand extends Command.Base {
     /**
      * {@inheritDoc}
      *
-     * @throws UserNotFoundException if no user exists with the given email
-     * @throws OwnershipException if no user owns the given card,
-     * or the user is unauthorized to perform the withdrawal
-     * @throws OperationException if the card is frozen
-     * or the connected account doesn't have enough funds
+     * @return a failure if the user or the card don't exist,
+     * if the user is unauthorized to perform the withdrawal,
+     * if the card is frozen or if the connected account doesn't have enough funds
      */
     @Override
-    public void execute()
-            throws UserNotFoundException, OwnershipException, OperationException {
+    public CommandResult execute() throws OperationException {
 
         // Retrieve user and card
-        Card targetCard;
-        User targetUser;
-
-        try {
-            targetUser = BankingSystem.getStorageProvider().getUserByEmail(email);
-            targetCard = BankingSystem.getStorageProvider().getCard(cardNumber);
-        } catch (UserNotFoundException e) {
-            throw new UserNotFoundException(
+        Optional<User> foundUser = BankingSystem.getStorageProvider().findUserByEmail(email);
+        if (foundUser.isEmpty()) {
+            return CommandResult.failure(
                     "User not found",
-                    e.getMessage(),
+                    () -> "No user found using email: " + email,
                     new CommandDescriptionHandler(this)
             );
-        } catch (OwnershipException e) {
-            throw new OwnershipException(
+        }
+
+        Optional<Card> foundCard = BankingSystem.getStorageProvider().findCard(cardNumber);
+        if (foundCard.isEmpty()) {
+            return CommandResult.failure(
                     "Card not found",
-                    e.getMessage(),
+                    () -> "No card found: " + cardNumber,
                     new CommandDescriptionHandler(this)
             );
         }
 
-
+        User targetUser = foundUser.get();
+        Card targetCard = foundCard.get();
         Account targetAccount = targetCard.getAccount();
 
         // Check if the user is authorized to perform the withdrawal
         if (targetAccount.isUnauthorized(targetUser)) {
-            throw new OwnershipException(
+            return CommandResult.failure(
                     "Card not found",
-                    targetUser
+                    () -> targetUser
                         + " doesn't have access to card "
                         + cardNumber,
                     new CommandDescriptionHandler(this)
@@ -86,9 +83,9 @@ public class CashWithdrawCommand extends Command.Base {
 
         // Check if the card is frozen
         if (!targetCard.isActive()) {
-            throw new OperationException(
+            return CommandResult.failure(
                     "Card is frozen",
-                    "Frozen card: " + targetCard.getCardNumber(),
+                    () -> "Frozen card: " + targetCard.getCardNumber(),
                     new TransactionHandler(targetAccount, timestamp)
             );
         }
@@ -99,18 +96,16 @@ public class CashWithdrawCommand extends Command.Base {
         Amount targetAmount = requestedAmount.to(targetAccount.getCurrency());
 
         // Perform withdrawal
-        try {
-            targetAccount.authorizeSpending(targetUser, targetAmount);
-            targetAccount.applyFee(targetAmount);
-        } catch (OperationException e) {
-            throw new OperationException(
+        if (!targetAccount.trySpending(targetUser, targetAmount)) {
+            return CommandResult.failure(
                     "Insufficient funds",
-                    "Account "
+                    () -> "Account "
                             + targetAccount.getAccountIBAN()
                             + " has insufficient funds",
                     new TransactionHandler(targetAccount, timestamp)
             );
         }
+        targetAccount.applyFee(targetAmount);
 
         // Emmit withdrawal transaction to the connected account
         targetAccount.getTransactions().add(
@@ -118,6 +113,7 @@ public class CashWithdrawCommand extends Command.Base {
                         .setAmount(amount)
         );
 
+        return CommandResult.success();
     }
 
     /**
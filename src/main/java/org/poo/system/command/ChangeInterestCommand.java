@@ -5,6 +5,7 @@ import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.Transaction;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OperationException;
 import org.poo.system.exceptions.OwnershipException;
@@ -32,7 +33,7 @@ public class ChangeInterestCommand extends Command.Base {
      * @throws OperationException if the account is not a savings one
      */
     @Override
-    public void execute() throws OwnershipException, OperationException {
+    public CommandResult execute() throws OwnershipException, OperationException {
         // Retrieve the account from the storage provider
         Account targetAccount = BankingSystem.getStorageProvider().getAccountByIban(account);
 
@@ -56,6 +57,7 @@ public class ChangeInterestCommand extends Command.Base {
         // Change the rate
         targetAccount.setInterest(newRate);
 
+        return CommandResult.success();
     }
 
     /**
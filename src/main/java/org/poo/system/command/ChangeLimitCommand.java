@@ -5,6 +5,7 @@ import lombok.Getter;
 import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OperationException;
 import org.poo.system.exceptions.OwnershipException;
@@ -86,7 +87,7 @@ public final class ChangeLimitCommand extends Command.Base {
      * or the user is unauthorized to perform the action
      * @throws OperationException if the account is not a business one
      */
-    public void execute()
+    public CommandResult execute()
             throws UserNotFoundException, OwnershipException, OperationException {
 
         // Retrieve the user and account
@@ -143,6 +144,7 @@ public final class ChangeLimitCommand extends Command.Base {
                 break;
         }
 
+        return CommandResult.success();
     }
 
     /**
@@ -5,15 +5,17 @@ import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.Transaction;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OwnershipException;
 import org.poo.system.exceptions.handlers.CommandDescriptionHandler;
+import org.poo.system.exchange.Money;
 import org.poo.system.user.Account;
 import org.poo.system.user.Card;
 
 public class CheckCardCommand extends Command.Base {
 
-    private static final double WARNING_THRESHOLD = 30.0;
+    private static final long WARNING_THRESHOLD = 30 * Money.SCALE;
     private final String cardNumber;
 
     public CheckCardCommand(final String cardNumber) {
@@ -27,7 +29,7 @@ public class CheckCardCommand extends Command.Base {
      * @throws OwnershipException if the card does not belong to anyone
      */
     @Override
-    public void execute() throws OwnershipException {
+    public CommandResult execute() throws OwnershipException {
 
         // Retrieve the card from the storage provider, generate error on fail
         Card targetCard;
@@ -45,14 +47,14 @@ public class CheckCardCommand extends Command.Base {
         Account targetAccount = targetCard.getAccount();
 
         // Verify the account's balance
-        if (targetAccount.getFunds().total() <= targetAccount.getMinBalance()) {
+        if (targetAccount.getBalance() <= targetAccount.getMinBalanceUnits()) {
             // Freeze card
             targetCard.setActive(false);
             targetAccount.getTransactions().add(new Transaction.Base(
                     "You have reached the minimum total of funds, the card will be frozen",
                     timestamp
             ));
-        } else if (targetAccount.getFunds().sub(targetAccount.getMinBalance()).total()
+        } else if (targetAccount.getBalance() - targetAccount.getMinBalanceUnits()
                 <= WARNING_THRESHOLD) {
             // The account is nearing the minimum balance threshold
             // Issue a warning
@@ -63,6 +65,7 @@ public class CheckCardCommand extends Command.Base {
             ));
         }
 
+        return CommandResult.success();
     }
 
     /**
@@ -6,6 +6,7 @@ import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.Transaction;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OwnershipException;
 import org.poo.system.exceptions.UserNotFoundException;
@@ -54,7 +55,7 @@ public class CreateCardCommand extends Command.Base {
      * @throws OwnershipException if the given account is not authorized
      */
     @Override
-    public void execute() throws UserNotFoundException, OwnershipException {
+    public CommandResult execute() throws UserNotFoundException, OwnershipException {
 
         // Retrieve the user from the storage provider
         User targetUser = BankingSystem.getStorageProvider().getUserByEmail(email);
@@ -65,11 +66,14 @@ public class CreateCardCommand extends Command.Base {
             throw new OwnershipException("User " + email + " is not authorized for " + account);
         }
 
-        // Create a new card
-        Card newCard = new Card(targetAccount, targetUser, cardType, Utils.generateCardNumber());
+        // Create a new card, with a number that isn't used by another card
+        String cardNumber = Utils.generateCardNumber(
+                candidate -> BankingSystem.getStorageProvider().findCard(candidate).isPresent()
+        );
+        Card newCard = new Card(targetAccount, targetUser, cardType, cardNumber);
 
         BankingSystem.log(
-                "Created card: "
+                () -> "Created card: "
                         + newCard.getCardNumber()
                         + " ["
                         + cardType
@@ -86,6 +90,8 @@ public class CreateCardCommand extends Command.Base {
 
         // Register the new card
         BankingSystem.getStorageProvider().registerCard(newCard);
+
+        return CommandResult.success();
     }
 
     /**
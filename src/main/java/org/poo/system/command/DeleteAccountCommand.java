@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OperationException;
 import org.poo.system.exceptions.OwnershipException;
@@ -36,7 +37,8 @@ public class DeleteAccountCommand extends Command.Base {
      * @throws OperationException if the account still has funds
      */
     @Override
-    public void execute() throws UserNotFoundException, OwnershipException, OperationException {
+    public CommandResult execute()
+            throws UserNotFoundException, OwnershipException, OperationException {
         // Retrieve the user and account from the storage provider
         User targetUser = BankingSystem.getStorageProvider().getUserByEmail(email);
         Account targetAccount = BankingSystem.getStorageProvider().getAccountByIban(account);
@@ -47,7 +49,7 @@ public class DeleteAccountCommand extends Command.Base {
         }
 
         // If the user still has funds, generate errors
-        if (targetAccount.getFunds().total() > 0) {
+        if (targetAccount.getBalance() > 0) {
             throw new OperationException(
                     "Account couldn't be deleted - see org.poo.transactions for details",
                     "Account " + account + " still has funds!",
@@ -69,6 +71,8 @@ public class DeleteAccountCommand extends Command.Base {
             );
             obj.put("timestamp", timestamp);
         });
+
+        return CommandResult.success();
     }
 
     /**
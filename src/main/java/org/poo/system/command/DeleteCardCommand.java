@@ -5,6 +5,7 @@ import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.Transaction;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OwnershipException;
 import org.poo.system.exceptions.UserNotFoundException;
@@ -50,7 +51,7 @@ public class DeleteCardCommand extends Command.Base {
      * or no user owns the given card
      */
     @Override
-    public void execute() throws UserNotFoundException, OwnershipException {
+    public CommandResult execute() throws UserNotFoundException, OwnershipException {
         // Retrieve the user and card from the storage provider
         User targetUser = BankingSystem.getStorageProvider().getUserByEmail(email);
         Card targetCard = BankingSystem.getStorageProvider().getCard(cardNumber);
@@ -58,8 +59,8 @@ public class DeleteCardCommand extends Command.Base {
         // If the balance shouldn't be ignored and the connected account still has funds,
         // Cancel the deletion
         if (!ignoreBalance
-                && targetCard.getAccount().getFunds().total() > 0.0) {
-            return;
+                && targetCard.getAccount().getBalance() > 0) {
+            return CommandResult.success();
         }
 
         // Delete the card
@@ -79,7 +80,7 @@ public class DeleteCardCommand extends Command.Base {
                         )
         );
 
-
+        return CommandResult.success();
     }
 
     /**
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OwnershipException;
 import org.poo.system.user.Account;
@@ -28,12 +29,14 @@ public class MinBalanceCommand extends Command.Base {
      * @throws OwnershipException if no user owns the given account
      */
     @Override
-    public void execute() throws OwnershipException {
+    public CommandResult execute() throws OwnershipException {
         // Retrieve the account from the storage provider
         Account targetAccount = BankingSystem.getStorageProvider().getAccountByIban(account);
 
         // Set the new minimum balance
         targetAccount.setMinBalance(amount);
+
+        return CommandResult.success();
     }
     /**
      * Deserializes the given node into a {@code Command.Base} instance
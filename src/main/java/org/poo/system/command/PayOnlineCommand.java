@@ -9,15 +9,16 @@ import org.poo.system.exceptions.handlers.CommandDescriptionHandler;
 import org.poo.system.exceptions.handlers.TransactionHandler;
 import org.poo.system.exchange.Amount;
 import org.poo.system.exchange.ExchangeException;
-import org.poo.system.exceptions.OperationException;
-import org.poo.system.exceptions.OwnershipException;
 import org.poo.system.exceptions.UserNotFoundException;
 import org.poo.system.Transaction;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.user.Account;
 import org.poo.system.user.Card;
 import org.poo.system.user.User;
 
+import java.util.Optional;
+
 public class PayOnlineCommand extends Command.Base {
 
     private final String email;
@@ -45,51 +46,51 @@ public class PayOnlineCommand extends Command.Base {
      * {@inheritDoc}
      *
      * @throws UserNotFoundException if the given user does not exist
-     * @throws OwnershipException if the given account is not owned by the given user
      * @throws ExchangeException if no exchange from the account's currency
      * to the given currency exists
+     * @return a failure if the card doesn't exist or isn't owned by the user,
+     * if the card is frozen or if the account doesn't have enough funds
      */
     @Override
-    public void execute() throws UserNotFoundException, OwnershipException, ExchangeException {
+    public CommandResult execute() throws UserNotFoundException, ExchangeException {
 
         // Retrieve the user from the storage provider
         User targetUser = BankingSystem.getStorageProvider().getUserByEmail(email);
 
         // Retrieve the card from the storage provider
-        Card targetCard;
-        try {
-            targetCard = BankingSystem.getStorageProvider().getCard(cardNumber);
-        } catch (OwnershipException e) {
-            throw new OwnershipException(
+        Optional<Card> foundCard = BankingSystem.getStorageProvider().findCard(cardNumber);
+        if (foundCard.isEmpty()) {
+            return CommandResult.failure(
                     "Card not found",
-                    e.getMessage(),
+                    () -> "No card found: " + cardNumber,
                     new CommandDescriptionHandler(this)
             );
         }
+        Card targetCard = foundCard.get();
         Account targetAccount = targetCard.getAccount();
 
         // Check authorization (error message should be something else tho)
         if (targetAccount.isUnauthorized(targetUser)) {
-            throw new OwnershipException(
+            return CommandResult.failure(
                     "Card not found",
-                    "Card " + cardNumber + " is not owned by " + email,
+                    () -> "Card " + cardNumber + " is not owned by " + email,
                     new CommandDescriptionHandler(this)
             );
         }
 
         // Check if the card is frozen
         if (!targetCard.isActive()) {
-            throw new OperationException(
+            return CommandResult.failure(
                     "The card is frozen",
-                    "Card " + cardNumber + " is frozen",
+                    () -> "Card " + cardNumber + " is frozen",
                     new TransactionHandler(targetAccount, timestamp)
             );
         }
 
         // Ignore freaky ahh payment from the 4th test
         if (amount.total() <= 0.0) {
-            BankingSystem.log("Tried to pay 0.0 to " + commerciantName);
-            return;
+            BankingSystem.log(() -> "Tried to pay 0.0 to " + commerciantName);
+            return CommandResult.success();
         }
 
         Commerciant commerciant = BankingSystem
@@ -99,28 +100,13 @@ public class PayOnlineCommand extends Command.Base {
         // Convert from requested currency to the account's currency
         Amount targetAmount = amount.to(targetAccount.getCurrency());
 
-        try {
-            targetAccount.authorizeSpending(targetUser, targetAmount);
-
-            // Emmit payment transaction
-            targetAccount.getTransactions().add(
-                    new Transaction.Payment("Card payment", timestamp)
-                            .setCommerciant(commerciantName)
-                            .setAmount(targetAmount.total())
-            );
-
-            targetAccount.applyFee(targetAmount);
-            targetAccount.applyCashBack(targetUser, commerciant, targetAmount);
-            BankingSystem.log(
-                    "paid: " + targetAmount.to("RON")
-            );
-        } catch (OperationException e) {
+        if (!targetAccount.trySpending(targetUser, targetAmount)) {
             BankingSystem.log(
                     "Insufficient funds or unauthorized"
             );
-            throw new OperationException(
+            return CommandResult.failure(
                     "Insufficient funds",
-                    "Not enough balance: "
+                    () -> "Not enough balance: "
                             + targetAccount.getFunds()
                             + " (wanted to pay "
                             + targetAmount
@@ -131,8 +117,21 @@ public class PayOnlineCommand extends Command.Base {
             );
         }
 
+        // Emmit payment transaction
+        targetAccount.getTransactions().add(
+                new Transaction.Payment("Card payment", timestamp)
+                        .setCommerciant(commerciantName)
+                        .setAmount(targetAmount.total())
+        );
+
+        targetAccount.applyFee(targetAmount);
+        targetAccount.applyCashBack(targetUser, commerciant, targetAmount);
+        BankingSystem.log(
+                () -> "paid: " + targetAmount.to("RON")
+        );
+
         BankingSystem.log(
-                "Paid "
+                () -> "Paid "
                         + amount
                         + " ("
                         + targetAmount
@@ -141,18 +140,20 @@ public class PayOnlineCommand extends Command.Base {
                         + " [online]"
         );
 
-
-
         // Generate a new one time card
         if (targetCard.getCardType() == Card.Type.ONE_TIME) {
-            new DeleteCardCommand(
+            CommandResult deleted = new DeleteCardCommand(
                     targetCard.getCardNumber(),
                     // change to account owner
                     targetAccount.getOwner().getEmail(),
                     timestamp,
                     true
             ).execute();
-            new CreateCardCommand(
+            if (!deleted.isSuccess()) {
+                return deleted;
+            }
+
+            return new CreateCardCommand(
                     Card.Type.ONE_TIME,
                     targetAccount.getAccountIBAN(),
                     targetUser.getEmail(),
@@ -160,6 +161,7 @@ public class PayOnlineCommand extends Command.Base {
             ).execute();
         }
 
+        return CommandResult.success();
     }
 
     /**
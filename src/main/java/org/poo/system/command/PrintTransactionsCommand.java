@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.UserNotFoundException;
 import org.poo.system.user.User;
@@ -23,7 +24,7 @@ public class PrintTransactionsCommand extends Command.Base {
      * @throws UserNotFoundException if the given user does not exist
      */
     @Override
-    public void execute() throws UserNotFoundException {
+    public CommandResult execute() throws UserNotFoundException {
         // Retrieve the user from the storage provider
         User targetUser = BankingSystem.getStorageProvider().getUserByEmail(email);
 
@@ -37,6 +38,8 @@ public class PrintTransactionsCommand extends Command.Base {
                     }
                 })
         );
+
+        return CommandResult.success();
     }
 
     /**
@@ -2,6 +2,7 @@ package org.poo.system.command;
 
 import org.poo.system.BankingSystem;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 
 public class PrintUsersCommand extends Command.Base {
 
@@ -13,12 +14,14 @@ public class PrintUsersCommand extends Command.Base {
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public CommandResult execute() {
         super.outputArray(
                 arr -> BankingSystem.getStorageProvider()
                         .getUsers()
                         .forEach(user -> arr.add(user.toNode()))
         );
+
+        return CommandResult.success();
     }
 
 }
@@ -6,6 +6,7 @@ import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.Transaction;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OwnershipException;
 import org.poo.system.exceptions.handlers.CommandDescriptionHandler;
@@ -34,7 +35,7 @@ public class ReportCommand extends Command.Base {
      * @throws OwnershipException if the given account is not owned by any user
      */
     @Override
-    public void execute() throws OwnershipException {
+    public CommandResult execute() throws OwnershipException {
         // Retrieve the account from the storage provider
         Account targetAccount;
         try {
@@ -53,16 +54,15 @@ public class ReportCommand extends Command.Base {
             root.put("IBAN", account);
             root.put("currency", targetAccount.getCurrency());
             ArrayNode arr = root.putArray("transactions");
-            for (Transaction transaction : targetAccount.getTransactions()) {
-                if (
-                        transaction.getTimestamp() >= startTimestamp
-                                && transaction.getTimestamp() <= endTimestamp
-                ) {
-                    arr.add(transaction.toNode());
-                }
+            for (Transaction transaction : targetAccount
+                    .getTransactions()
+                    .between(startTimestamp, endTimestamp)
+            ) {
+                arr.add(transaction.toNode());
             }
         });
 
+        return CommandResult.success();
     }
 
     /**
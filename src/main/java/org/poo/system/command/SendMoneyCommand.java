@@ -5,20 +5,22 @@ import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.Transaction;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.commerce.Commerciant;
 import org.poo.system.exceptions.AliasException;
-import org.poo.system.exceptions.BankingException;
 import org.poo.system.exceptions.InputException;
-import org.poo.system.exceptions.OperationException;
 import org.poo.system.exceptions.OwnershipException;
-import org.poo.system.exceptions.UserNotFoundException;
 import org.poo.system.exceptions.handlers.CommandDescriptionHandler;
 import org.poo.system.exceptions.handlers.TransactionHandler;
 import org.poo.system.exchange.Amount;
+import org.poo.system.exchange.Money;
 import org.poo.system.user.Account;
 import org.poo.system.user.User;
+import org.poo.system.user.plan.ServicePlan;
 import org.poo.utils.Utils;
 
+import java.util.Optional;
+
 public class SendMoneyCommand extends Command.Base {
 
     private final String sender;
@@ -43,36 +45,18 @@ public class SendMoneyCommand extends Command.Base {
     }
 
 
-    private void payCommerciant(
+    private CommandResult payCommerciant(
             final User senderUser,
             final Account senderAccount,
             final Commerciant commerciant,
             final Amount senderAmount,
             final Transaction transaction
-    ) throws OperationException {
-        try {
-            // Pay the commerciant, apply fees, apply cashback
-            senderAccount.authorizeSpending(senderUser, senderAmount);
-            senderAccount.applyFee(senderAmount);
-            senderAccount.applyCashBack(senderUser, commerciant, senderAmount);
-
-            // Emmit the transaction
-            senderAccount.getTransactions().add(transaction);
-
-            BankingSystem.log(
-                    "Paid "
-                            + amount
-                            + " ("
-                            + senderAmount
-                            + ") to "
-                            + commerciant.getName()
-                            + " [transfer]"
-            );
-
-        } catch (OperationException o) {
-            throw new OperationException(
+    ) {
+        // Pay the commerciant, apply fees, apply cashback
+        if (!senderAccount.trySpending(senderUser, senderAmount)) {
+            return CommandResult.failure(
                     "Insufficient funds",
-                    "Not enough balance: "
+                    () -> "Not enough balance: "
                             + senderAccount.getFunds()
                             + " (wanted to pay "
                             + senderAmount
@@ -80,6 +64,23 @@ public class SendMoneyCommand extends Command.Base {
                     new TransactionHandler(senderAccount, timestamp)
             );
         }
+        senderAccount.applyFee(senderAmount);
+        senderAccount.applyCashBack(senderUser, commerciant, senderAmount);
+
+        // Emmit the transaction
+        senderAccount.getTransactions().add(transaction);
+
+        BankingSystem.log(
+                () -> "Paid "
+                        + amount
+                        + " ("
+                        + senderAmount
+                        + ") to "
+                        + commerciant.getName()
+                        + " [transfer]"
+        );
+
+        return CommandResult.success();
     }
 
     /**
@@ -87,15 +88,11 @@ public class SendMoneyCommand extends Command.Base {
      *
      * @throws AliasException if the sender is an alias instead of an account
      * @throws OwnershipException if no user owns the sender
-     * or receiver / commerciant accounts
-     * @throws OperationException
-     * <ul>
-     *      <li> if the sender is unauthorized to perform the transfer </li>
-     *      <li> if the sender doesn't have enough funds </li>
-     * </ul>
+     * @return a failure if the receiver doesn't exist
+     * or if the sender can't pay the amount
      */
     @Override
-    public void execute() throws AliasException, OwnershipException, OperationException {
+    public CommandResult execute() throws AliasException, OwnershipException {
 
         // Check if the sender is a valid account and not an alias
         if (!Utils.verifyIBAN(sender)) {
@@ -117,61 +114,58 @@ public class SendMoneyCommand extends Command.Base {
                 .setTransferType(Transaction.TransferType.SENT);
 
         // Retrieve the receiver account from the storage provider
-        Account receiverAccount;
-        try {
-            receiverAccount = Utils.verifyIBAN(receiver)
-                    ? BankingSystem.getStorageProvider().getAccountByIban(receiver)
-                    : BankingSystem.getStorageProvider().getAccountByAlias(receiver);
-        } catch (BankingException e) { // Catches OwnershipException or AliasException
-
-            // No registered user account found using the given IBAN
-            try {
-                // Trying to find a commerciant with the given IBAN
-                Commerciant commerciant = BankingSystem
-                        .getStorageProvider()
-                        .getCommerciantByIban(receiver);
-
-                // Try to pay the commerciant
-                payCommerciant(
-                        senderUser,
-                        senderAccount,
-                        commerciant,
-                        senderAmount,
-                        transaction
-                );
-
-                return;
-            } catch (UserNotFoundException unf) {
+        boolean receiverIsIban = Utils.verifyIBAN(receiver);
+        Optional<Account> foundReceiver = receiverIsIban
+                ? BankingSystem.getStorageProvider().findAccountByIban(receiver)
+                : BankingSystem.getStorageProvider().findAccountByAlias(receiver);
+
+        if (foundReceiver.isEmpty()) {
+            // No registered user account found, trying to find a commerciant with the given IBAN
+            Optional<Commerciant> commerciant = BankingSystem
+                    .getStorageProvider()
+                    .findCommerciantByIban(receiver);
+
+            if (commerciant.isEmpty()) {
                 // No account or commerciant found
-                throw new OwnershipException(
+                return CommandResult.failure(
                         "User not found",
-                        "Receiver not found: " + receiver,
+                        () -> "Receiver not found: " + receiver,
                         new CommandDescriptionHandler(this)
                 );
             }
+
+            // Try to pay the commerciant
+            return payCommerciant(
+                    senderUser,
+                    senderAccount,
+                    commerciant.get(),
+                    senderAmount,
+                    transaction
+            );
         }
+        Account receiverAccount = foundReceiver.get();
 
         // Receiver was indeed a user account
 
         // Convert the total to be transferred to the receiver
         Amount receiverAmount = senderAmount.to(receiverAccount.getCurrency());
 
-        try {
-            Amount senderFee =
-                    senderAccount
-                            .getOwner()
-                            .getServicePlan()
-                            .getFee(senderAccount, senderAmount);
+        ServicePlan senderPlan = senderAccount.getOwner().getServicePlan();
+        senderPlan.trackPayment(senderAccount, senderAmount);
+        long senderFee = senderPlan.getFee(
+                Money.of(senderAmount, senderAccount.getUnit()),
+                senderAccount.getUnit()
+        );
 
-            // Authorize the transfer
-            senderAccount.authorizeSpending(
-                    senderUser,
-                    senderAmount.add(senderFee)
-            );
-        } catch (OperationException e) {
-            throw new OperationException(
+        // The upgrade is recorded before the transfer, even if it can't be made
+        BankingSystem.getUpgradeProcessor().drain();
+
+        // Authorize the transfer
+        Amount senderTotal = senderAmount.add(Money.toTotal(senderFee));
+        if (!senderAccount.trySpending(senderUser, senderTotal)) {
+            return CommandResult.failure(
                     "Insufficient funds",
-                    "Not enough balance: "
+                    () -> "Not enough balance: "
                             + senderAccount.getFunds()
                             + " (wanted to send "
                             + senderAmount
@@ -197,7 +191,7 @@ public class SendMoneyCommand extends Command.Base {
         );
 
         BankingSystem.log(
-                "Sent "
+                () -> "Sent "
                         + amount
                         + " "
                         + senderAccount.getCurrency()
@@ -205,13 +199,14 @@ public class SendMoneyCommand extends Command.Base {
                         + receiverAmount
                         + ") to "
                         + receiverAccount.getAccountIBAN()
-                        + (Utils.verifyIBAN(receiver)
+                        + (receiverIsIban
                         ? ""
                         : " ["
                         + receiver
                         + "]")
         );
 
+        return CommandResult.success();
     }
 
     /**
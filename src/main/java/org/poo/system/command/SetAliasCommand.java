@@ -5,6 +5,7 @@ import lombok.Setter;
 import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 
 @Setter
@@ -29,7 +30,7 @@ public class SetAliasCommand extends Command.Base {
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public CommandResult execute() {
         // What can I do with the email field????
         BankingSystem
                 .getStorageProvider()
@@ -37,6 +38,8 @@ public class SetAliasCommand extends Command.Base {
                         BankingSystem.getStorageProvider().getAccountByIban(account),
                         alias
                 );
+
+        return CommandResult.success();
     }
 
     /**
@@ -7,6 +7,7 @@ import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.Transaction;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OperationException;
 import org.poo.system.exceptions.OwnershipException;
@@ -38,7 +39,7 @@ public class SpendingReportCommand extends Command.Base {
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public CommandResult execute() {
         // Retrieve the account from the storage provider
         Account targetAccount;
         try {
@@ -70,9 +71,12 @@ public class SpendingReportCommand extends Command.Base {
             ArrayNode arr = root.putArray("transactions");
             Map<String, Double> commerciants = new HashMap<>();
 
-            // Filter account's transactions to
-            // have a commerciant and it's timestamp to be within range
-            for (Transaction transaction : targetAccount.getTransactions()) {
+            // Filter account's transactions within range
+            // to the ones having a commerciant
+            for (Transaction transaction : targetAccount
+                    .getTransactions()
+                    .between(startTimestamp, endTimestamp)
+            ) {
                 String commerciant = transaction.getCommerciant();
                 double amount = transaction.getAmount();
 
@@ -80,19 +84,15 @@ public class SpendingReportCommand extends Command.Base {
                     continue;
                 }
 
-                if (transaction.getTimestamp() >= startTimestamp
-                        && transaction.getTimestamp() <= endTimestamp
-                ) {
-                    arr.add(transaction.toNode());
-                    if (!commerciants.containsKey(commerciant)) {
-                        commerciants.put(commerciant, 0.0);
-                    }
-                    commerciants.put(
-                            commerciant,
-                            commerciants.get(commerciant)
-                                    + amount
-                    );
+                arr.add(transaction.toNode());
+                if (!commerciants.containsKey(commerciant)) {
+                    commerciants.put(commerciant, 0.0);
                 }
+                commerciants.put(
+                        commerciant,
+                        commerciants.get(commerciant)
+                                + amount
+                );
             }
 
             ArrayNode comArr = root.putArray("commerciants");
@@ -110,6 +110,7 @@ public class SpendingReportCommand extends Command.Base {
 
         });
 
+        return CommandResult.success();
     }
 
     /**
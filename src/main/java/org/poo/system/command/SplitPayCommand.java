@@ -5,6 +5,7 @@ import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.payments.PendingPayment;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OwnershipException;
 import org.poo.system.exchange.Amount;
@@ -47,10 +48,10 @@ public class SplitPayCommand extends Command.Base {
      * @throws OwnershipException if any of the accounts isn't owned by a user
      */
     @Override
-    public void execute() throws OwnershipException {
+    public CommandResult execute() throws OwnershipException {
 
         BankingSystem.log(
-                "Initiated "
+                () -> "Initiated "
                         + type
                         + " split payment of "
                         + totalAmount
@@ -65,16 +66,23 @@ public class SplitPayCommand extends Command.Base {
                     .getAccountByIban(userAmount.first());
 
             // Add it to the payment with its amount
-            payment.getInvolvedAccounts().add(new Pair<>(
-                    involvedAccount,
-                    userAmount.second()
-            ));
-
-            payment.getObservers().add(involvedAccount.getOwner());
+            payment.addInvolvedAccount(involvedAccount, userAmount.second());
 
             // Register the pending payment to the account owner
             involvedAccount.getOwner().register(payment);
         }
+
+        // Schedule the payment to be rejected if it's not addressed in time
+        if (BankingSystem.SPLIT_PAYMENT_EXPIRY > 0) {
+            payment.setExpiry(
+                    BankingSystem.getInstance().getPaymentExpiry().schedule(
+                            timestamp + BankingSystem.SPLIT_PAYMENT_EXPIRY,
+                            payment
+                    )
+            );
+        }
+
+        return CommandResult.success();
     }
 
     /**
@@ -5,6 +5,7 @@ import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.Transaction;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OperationException;
 import org.poo.system.exceptions.OwnershipException;
@@ -13,16 +14,12 @@ import org.poo.system.exceptions.handlers.TransactionHandler;
 import org.poo.system.exchange.Amount;
 import org.poo.system.user.Account;
 import org.poo.system.user.plan.ServicePlan;
-import org.poo.system.user.plan.ServicePlanFactory;
 
 public class UpgradePlanCommand extends Command.Base {
 
     private final String account;
     private final ServicePlan.Tier newTier;
 
-    // Used when instantiating the command for a silver -> gold upgrade
-    private final boolean waiveFee;
-
     public UpgradePlanCommand(
             final String account,
             final ServicePlan.Tier newTier
@@ -30,21 +27,6 @@ public class UpgradePlanCommand extends Command.Base {
         super(Command.Type.UPGRADE_PLAN);
         this.account = account;
         this.newTier = newTier;
-        this.waiveFee = false;
-    }
-
-    // Used when instantiating the command for a silver -> gold upgrade
-    public UpgradePlanCommand(
-            final String account,
-            final ServicePlan.Tier newTier,
-            final int timestamp,
-            final boolean waiveFee
-    ) {
-        super(Command.Type.UPGRADE_PLAN);
-        this.account = account;
-        this.newTier = newTier;
-        this.timestamp = timestamp;
-        this.waiveFee = waiveFee;
     }
 
     /**
@@ -55,11 +37,11 @@ public class UpgradePlanCommand extends Command.Base {
      * <ul>
      *     <li>if the account owner already has the given tier</li>
      *     <li>if the account owner wants to downgrade their plan</li>
-     *     <li>if the account doesn't have enough funds to upgrade</li>
      * </ul>
+     * @return a failure if the account doesn't have enough funds to upgrade
      */
     @Override
-    public void execute() throws OwnershipException, OperationException {
+    public CommandResult execute() throws OwnershipException, OperationException {
         // Retrieve the account
         Account targetAccount;
         try {
@@ -104,21 +86,17 @@ public class UpgradePlanCommand extends Command.Base {
         // Convert the fee into the account's currency
         upgradeFee = upgradeFee.to(targetAccount.getCurrency());
 
-        try {
-            // Pay the upgrade fee only if it wasn't an automatic upgrade
-            if (!waiveFee) {
-                targetAccount.authorizeSpending(targetAccount.getOwner(), upgradeFee);
-            }
-        } catch (OperationException e) {
-            throw new OperationException(
+        // Pay the upgrade fee, automatic upgrades are applied by the plan itself
+        if (!targetAccount.trySpending(targetAccount.getOwner(), upgradeFee)) {
+            return CommandResult.failure(
                     "Insufficient funds",
-                    "upgradePlan: Insufficient funds",
+                    () -> "upgradePlan: Insufficient funds",
                     new TransactionHandler(targetAccount, timestamp)
             );
         }
 
         BankingSystem.log(
-                "Upgraded " + targetAccount.getOwner().getEmail()
+                () -> "Upgraded " + targetAccount.getOwner().getEmail()
                         + " to " + newTier.toString()
         );
 
@@ -130,10 +108,9 @@ public class UpgradePlanCommand extends Command.Base {
         );
 
         // Update the owner's plan
-        targetAccount.getOwner().setServicePlan(
-                ServicePlanFactory.getPlan(targetAccount.getOwner(), newTier)
-        );
+        targetAccount.getOwner().changePlan(newTier);
 
+        return CommandResult.success();
     }
 
     /**
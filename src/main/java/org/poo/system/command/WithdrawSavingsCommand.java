@@ -5,6 +5,7 @@ import org.poo.io.IOUtils;
 import org.poo.system.BankingSystem;
 import org.poo.system.Transaction;
 import org.poo.system.command.base.Command;
+import org.poo.system.command.base.CommandResult;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OperationException;
 import org.poo.system.exceptions.OwnershipException;
@@ -43,7 +44,7 @@ public class WithdrawSavingsCommand extends Command.Base {
      * </ul>
      */
     @Override
-    public void execute() throws OwnershipException, OperationException {
+    public CommandResult execute() throws OwnershipException, OperationException {
 
         // Retrieve the account from the storage provider
         Account savingsAccount;
@@ -81,7 +82,7 @@ public class WithdrawSavingsCommand extends Command.Base {
                 .getAccounts()
                 .stream()
                 .filter(
-                        acc -> acc.getCurrency().equals(amount.currency())
+                        acc -> acc.getUnit().equals(amount.unit())
                                 && acc.getAccountType().equals(Account.Type.CLASSIC)
                 ).findFirst();
 
@@ -101,10 +102,8 @@ public class WithdrawSavingsCommand extends Command.Base {
         Amount senderAmount = amount.to(savingsAccount.getCurrency());
 
         // Perform the transfer
-        try {
-            savingsAccount.authorizeSpending(savingsAccount.getOwner(), senderAmount);
-        } catch (OperationException e) {
-            throw new OperationException(
+        if (!savingsAccount.trySpending(savingsAccount.getOwner(), senderAmount)) {
+            return CommandResult.failure(
                     "Insufficient funds",
                     null,
                     new TransactionHandler(savingsAccount, timestamp)
@@ -127,6 +126,7 @@ public class WithdrawSavingsCommand extends Command.Base {
         savingsAccount.getTransactions().add(savingsTransaction);
         targetAccount.getTransactions().add(savingsTransaction);
 
+        return CommandResult.success();
     }
 
     /**
@@ -46,8 +46,11 @@ public interface Command {
 
     /**
      * Executes the command instance. May produce transactions or errors.
+     * Expected failures are returned, unexpected ones are thrown
+     *
+     * @return the outcome of the command
      */
-    void execute();
+    CommandResult execute();
 
 
     /**
@@ -235,6 +238,7 @@ public interface Command {
 
         Command.Base command = type.parse(node);
         command.timestamp = timestamp;
+        command.source = node;
 
         return command;
     }
@@ -275,6 +279,8 @@ public interface Command {
 
         protected Type command;
         protected int timestamp;
+        // The node the command was read from, null for internal commands
+        protected JsonNode source;
 
         public Base(final Type command) {
             this.command = command;
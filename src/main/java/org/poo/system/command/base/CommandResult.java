@@ -0,0 +1,87 @@
+package org.poo.system.command.base;
+
+import org.poo.system.exceptions.handlers.ExceptionHandler;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The outcome of a command
+ * </br>
+ * Expected failures (declined payments, frozen cards, ...) are returned as results
+ * instead of being thrown, they carry the same handlers an exception would
+ */
+public final class CommandResult {
+
+    private static final CommandResult SUCCESS = new CommandResult(null, null, List.of());
+
+    private final String message;
+    private final Supplier<String> detailedMessage;
+    private final List<ExceptionHandler> handlers;
+
+    private CommandResult(
+            final String message,
+            final Supplier<String> detailedMessage,
+            final List<ExceptionHandler> handlers
+    ) {
+        this.message = message;
+        this.detailedMessage = detailedMessage;
+        this.handlers = handlers;
+    }
+
+    /**
+     * @return the result of a command that completed
+     */
+    public static CommandResult success() {
+        return SUCCESS;
+    }
+
+    /**
+     * Creates the result of a command that failed for an expected reason
+     *
+     * @param message the message passed to the handlers
+     * @param detailedMessage formats the message to log, the message is used if it's null.
+     *                        It's only called when the failure is logged
+     * @param handlers the handlers producing the failure's output
+     * @return the failed result
+     */
+    public static CommandResult failure(
+            final String message,
+            final Supplier<String> detailedMessage,
+            final ExceptionHandler... handlers
+    ) {
+        return new CommandResult(message, detailedMessage, List.of(handlers));
+    }
+
+    /**
+     * @return whether the command completed
+     */
+    public boolean isSuccess() {
+        return this == SUCCESS;
+    }
+
+    /**
+     * Handles the failure, the same way an {@code OutputGeneratorException} would
+     *
+     * @return whether the failure was handled
+     */
+    public boolean handle() {
+        handlers.forEach(h -> h.handle(message));
+        return !handlers.isEmpty();
+    }
+
+    /**
+     * @return a detailed message of the failure
+     */
+    public String getDetailedMessage() {
+        if (detailedMessage != null) {
+            String detailed = detailedMessage.get();
+            if (detailed != null && !detailed.isEmpty()) {
+                return detailed;
+            }
+        }
+
+        return message;
+    }
+
+}
@@ -8,15 +8,16 @@ import org.poo.system.BankingSystem;
 import org.poo.system.commerce.cashback.CommerciantStrategy;
 import org.poo.system.commerce.cashback.StrategyFactory;
 import org.poo.system.exceptions.InputException;
-import org.poo.system.exchange.Amount;
+import org.poo.system.exchange.Currency;
+import org.poo.system.exchange.Money;
 import org.poo.system.user.Account;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Getter
 public final class Commerciant {
@@ -63,14 +64,18 @@ public final class Commerciant {
 
     }
 
+    // Spendings are kept in RON
+    private static final String SPENDING_CURRENCY = "RON";
+
     private final String name;
     private final int id;
     private final String accountIBAN;
     private final Type type;
     private final CommerciantStrategy strategy;
 
-    private final Map<Account, Integer> transactions = new HashMap<>();
-    private final Map<Account, Double> spendings = new HashMap<>();
+    // Read by the snapshot thread while other accounts are updated
+    private final Map<Account, Integer> transactions = new ConcurrentHashMap<>();
+    private final Map<Account, Double> spendings = new ConcurrentHashMap<>();
 
     public Commerciant(
             final String name,
@@ -120,10 +125,12 @@ public final class Commerciant {
      * Updates the spending for the given account
      *
      * @param account the account
-     * @param amount how much was spent
+     * @param units how much was spent, in minor units of the account's currency
      */
-    public void addSpending(final Account account, final Amount amount) {
-        double ronSpending = amount.to("RON").total();
+    public void addSpending(final Account account, final long units) {
+        double ronSpending = Money.toTotal(units)
+                * BankingSystem.getExchangeProvider()
+                    .getRate(account.getUnit(), Currency.of(SPENDING_CURRENCY));
         spendings.put(account, getSpendings(account) + ronSpending);
     }
 
@@ -2,33 +2,51 @@ package org.poo.system.commerce;
 
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.Setter;
 import org.poo.io.StateWriter;
-import org.poo.system.exchange.Amount;
+import org.poo.system.user.BusinessAccount;
 import org.poo.utils.NodeConvertable;
+import org.poo.utils.TimeSeries;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Getter
 public class CommerciantSpending implements NodeConvertable {
 
     private final String name;
-    private final List<String> employees = new ArrayList<>();
-    private final List<String> managers = new ArrayList<>();
 
-    @Setter
-    private Amount received;
+    // Number of payments made by each associate, in the order of their first payment
+    @Getter(AccessLevel.NONE)
+    private final Map<BusinessAccount.AssociateData, int[]> payments = new LinkedHashMap<>();
 
-    public CommerciantSpending(
-            final String name,
-            final String currency
-    ) {
+    // Amounts received in the account's currency, bucketed by timestamp
+    private final TimeSeries received = new TimeSeries();
+
+    public CommerciantSpending(final String name) {
         this.name = name;
-        this.received = new Amount(0.0, currency);
     }
 
+    /**
+     * Counts payments made by an associate
+     *
+     * @param associate the associate who paid
+     * @param count the number of payments
+     */
+    public void addPayments(final BusinessAccount.AssociateData associate, final int count) {
+        payments.computeIfAbsent(associate, key -> new int[1])[0] += count;
+    }
+
+    /**
+     * @return the number of payments made by each associate, in the order of their first payment
+     */
+    public Map<BusinessAccount.AssociateData, Integer> getPayments() {
+        Map<BusinessAccount.AssociateData, Integer> counts = new LinkedHashMap<>();
+        payments.forEach((associate, count) -> counts.put(associate, count[0]));
+        return Collections.unmodifiableMap(counts);
+    }
 
     /**
      * Converts the implementing instance to an {@code ObjectNode}
@@ -37,20 +55,36 @@ public class CommerciantSpending implements NodeConvertable {
      */
     @Override
     public ObjectNode toNode() {
+        return toNode(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Converts the commerciant's statistics between two timestamps to an {@code ObjectNode}
+     *
+     * @param start the first timestamp of the interval (inclusive)
+     * @param end the last timestamp of the interval (inclusive)
+     * @return the instance's JSON representation
+     */
+    public ObjectNode toNode(final int start, final int end) {
         ObjectNode root = StateWriter.getMapper().createObjectNode();
         root.put("commerciant", name);
 
         ArrayNode employeesArray = root.putArray("employees");
         ArrayNode managersArray = root.putArray("managers");
 
-        for (String employee : employees) {
-            employeesArray.add(employee);
-        }
-        for (String manager : managers) {
-            managersArray.add(manager);
-        }
+        // Each associate's name appears once for every payment they made,
+        // an associate's payments are listed together and aren't limited to the interval
+        payments.forEach((associate, count) -> {
+            ArrayNode array = associate.getRole() == BusinessAccount.Role.MANAGER
+                    ? managersArray
+                    : employeesArray;
+            String username = associate.getUsername();
+            for (int i = 0; i < count[0]; i++) {
+                array.add(username);
+            }
+        });
 
-        root.put("total received", received.total());
+        root.put("total received", received.sum(start, end));
 
         return root;
     }
@@ -3,7 +3,7 @@ package org.poo.system.commerce.cashback;
 import org.poo.system.BankingSystem;
 import org.poo.system.commerce.Commerciant;
 import org.poo.system.exceptions.InputException;
-import org.poo.system.exchange.Amount;
+import org.poo.system.exchange.Money;
 import org.poo.system.user.Account;
 
 import java.util.Arrays;
@@ -54,11 +54,11 @@ public interface CommerciantStrategy {
      * Applies the strategy on the given account
      *
      * @param account the account on which to apply the strategy on
-     * @param amount the total to be paid
+     * @param units the value to be paid, in minor units of the account's currency
      *
-     * @return the value of the cashback
+     * @return the value of the cashback, in minor units of the account's currency
      */
-    Amount apply(Account account, Amount amount);
+    long apply(Account account, long units);
 
     abstract class Base implements CommerciantStrategy {
         protected final Commerciant commerciant;
@@ -88,13 +88,13 @@ public interface CommerciantStrategy {
          * Checks if the given account is eligible for a coupon and applies it
          *
          * @param account the account to check
-         * @param amount the amount of the transaction
+         * @param units the value of the transaction, in minor units of the account's currency
          *
          * @return the coupon cashback or 0
          */
-        protected Amount applyCoupon(
+        protected long applyCoupon(
                 final Account account,
-                final Amount amount
+                final long units
         ) {
 
             Map<Commerciant.Type, Boolean> coupons = account.getCoupons();
@@ -102,24 +102,22 @@ public interface CommerciantStrategy {
             // Check if the coupon was already redeemed, or it isn't available yet
             if (!coupons.containsKey(commerciant.getType())
                     || !coupons.get(commerciant.getType())) {
-                return Amount.zero(account.getCurrency());
+                return 0;
             }
 
             // Remove the coupon, marking the coupon as redeemed
             account.getCoupons().remove(commerciant.getType());
 
             // Calculate the cashback total
-            Amount couponCashback = new Amount(
-                    amount.total()
-                            * commerciant.getType().getTransactionCashback(),
-                    amount.currency()
+            long couponCashback = Math.round(
+                    units * commerciant.getType().getTransactionCashback()
             );
 
             BankingSystem.log(
-                    "Applied coupon to "
+                    () -> "Applied coupon to "
                             + account.getAccountIBAN()
                             + " ["
-                            + couponCashback
+                            + Money.format(couponCashback, account.getUnit())
                             + "]"
             );
 
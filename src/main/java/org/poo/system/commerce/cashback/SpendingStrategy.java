@@ -3,7 +3,7 @@ package org.poo.system.commerce.cashback;
 import lombok.Getter;
 import org.poo.system.BankingSystem;
 import org.poo.system.commerce.Commerciant;
-import org.poo.system.exchange.Amount;
+import org.poo.system.exchange.Money;
 import org.poo.system.user.Account;
 
 public final class SpendingStrategy extends CommerciantStrategy.Base {
@@ -49,34 +49,31 @@ public final class SpendingStrategy extends CommerciantStrategy.Base {
      * Applies a cashback based on the total spent to a certain Commerciant
      */
     @Override
-    public Amount apply(final Account account, final Amount amount) {
+    public long apply(final Account account, final long units) {
         // Record the amount spent to the commerciant
-        commerciant.addSpending(account, amount);
+        commerciant.addSpending(account, units);
 
         // Calculate the cashback to be applied using
         // The total spent to `spendingThreshold` commerciants
         // To compute the cashback tier
-        Amount cashback = account.getOwner()
+        double totalSpending = getTotalSpending(account);
+        int tier = Tier.getTier(totalSpending);
+        long cashback = account.getOwner()
                 .getServicePlan()
-                .getSpendingCashback(
-                        amount,
-                        Tier.getTier(getTotalSpending(account))
-                );
+                .getSpendingCashback(units, tier);
 
-        BankingSystem.log(
-                "Total spending: " + getTotalSpending(account) + " RON"
-        );
+        BankingSystem.log(() -> "Total spending: " + totalSpending + " RON");
 
         BankingSystem.log(
-                "Applying spending cashback of tier "
-                        + Tier.getTier(getTotalSpending(account))
+                () -> "Applying spending cashback of tier "
+                        + tier
                         + " to "
                         + account.getAccountIBAN()
                         + " [" + commerciant.getType() + "]"
-                        + " [" + cashback + "]"
+                        + " [" + Money.format(cashback, account.getUnit()) + "]"
         );
 
         // Apply coupon (if any)
-        return cashback.add(super.applyCoupon(account, amount));
+        return Money.add(cashback, super.applyCoupon(account, units));
     }
 }
@@ -2,7 +2,6 @@ package org.poo.system.commerce.cashback;
 
 import org.poo.system.BankingSystem;
 import org.poo.system.commerce.Commerciant;
-import org.poo.system.exchange.Amount;
 import org.poo.system.user.Account;
 
 import java.util.Map;
@@ -26,15 +25,15 @@ public final class TransactionStrategy extends CommerciantStrategy.Base {
      * Applies a cashback based on the number of transactions made to a commerciant
      */
     @Override
-    public Amount apply(
+    public long apply(
             final Account account,
-            final Amount amount
+            final long units
     ) {
         // Add the transaction the commerciant
         commerciant.addTransaction(account);
 
         BankingSystem.log(
-                account.getAccountIBAN()
+                () -> account.getAccountIBAN()
                 + " ["
                 + commerciant.getTransactionCount(account)
                 + " / "
@@ -52,9 +51,9 @@ public final class TransactionStrategy extends CommerciantStrategy.Base {
                 account.getCoupons().put(coupon, true);
             }
 
-            return Amount.zero(amount.currency());
+            return 0;
         }
 
-        return super.applyCoupon(account, amount);
+        return super.applyCoupon(account, units);
     }
 }
@@ -1,7 +1,13 @@
 package org.poo.system.exceptions;
 
+import java.util.function.Supplier;
+
 public final class AliasException extends BankingException {
     public AliasException(final String message) {
         super(message);
     }
+
+    public AliasException(final Supplier<String> message) {
+        super(message);
+    }
 }
@@ -2,9 +2,56 @@ package org.poo.system.exceptions;
 
 import org.poo.system.BankingSystem;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.function.Supplier;
+
+/**
+ * The base of all the errors raised by the banking system
+ * </br>
+ * Most of these signal expected failures (lookup misses, declined operations),
+ * so the stack trace is only captured when verbose logging is enabled.
+ * The message can be formatted lazily, so failures that are never printed
+ * don't pay for building it
+ */
 public abstract class BankingException extends RuntimeException {
+
+    private volatile String message;
+    // Not serialized, the message is formatted before the error is written
+    private transient Supplier<String> formatter;
+
     public BankingException(final String message) {
-        super(message);
+        super(null, null, false, BankingSystem.VERBOSE_LOGGING);
+        this.message = message;
+    }
+
+    public BankingException(final Supplier<String> formatter) {
+        super(null, null, false, BankingSystem.VERBOSE_LOGGING);
+        this.formatter = formatter;
+    }
+
+    /**
+     * Formats the message on the first call, once even if several threads ask for it
+     *
+     * @return the message of the error
+     */
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            synchronized (this) {
+                if (formatter != null) {
+                    message = formatter.get();
+                    formatter = null;
+                }
+            }
+        }
+
+        return message;
+    }
+
+    private void writeObject(final ObjectOutputStream output) throws IOException {
+        getMessage();
+        output.defaultWriteObject();
     }
 
     /**
@@ -19,7 +66,7 @@ public abstract class BankingException extends RuntimeException {
      * @return a detailed message of the error
      */
     public String getDetailedMessage() {
-        return super.getMessage();
+        return getMessage();
     }
 
 }
@@ -5,6 +5,7 @@ import org.poo.system.exceptions.handlers.ExceptionHandler;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 public class OutputGeneratorException extends BankingException {
 
@@ -21,12 +22,21 @@ public class OutputGeneratorException extends BankingException {
         this.handlers.addAll(Arrays.asList(handlers));
     }
 
+    public OutputGeneratorException(
+            final Supplier<String> message,
+            final ExceptionHandler... handlers
+    ) {
+        super(message);
+        this.detailedMessage = null;
+        this.handlers.addAll(Arrays.asList(handlers));
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public boolean handle() {
-        handlers.forEach(h -> h.handle(super.getMessage()));
+        handlers.forEach(h -> h.handle(getMessage()));
         return !handlers.isEmpty();
     }
 
@@ -39,7 +49,7 @@ public class OutputGeneratorException extends BankingException {
             return detailedMessage;
         }
 
-        return super.getMessage();
+        return getMessage();
     }
 
 }
@@ -2,6 +2,8 @@ package org.poo.system.exceptions;
 
 import org.poo.system.exceptions.handlers.ExceptionHandler;
 
+import java.util.function.Supplier;
+
 public final class OwnershipException extends OutputGeneratorException {
 
 
@@ -17,4 +19,8 @@ public final class OwnershipException extends OutputGeneratorException {
         super(message, null);
     }
 
+    public OwnershipException(final Supplier<String> message) {
+        super(message);
+    }
+
 }
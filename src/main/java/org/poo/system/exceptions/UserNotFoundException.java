@@ -2,6 +2,8 @@ package org.poo.system.exceptions;
 
 import org.poo.system.exceptions.handlers.ExceptionHandler;
 
+import java.util.function.Supplier;
+
 public final class UserNotFoundException extends OutputGeneratorException {
     public UserNotFoundException(
             final String message,
@@ -17,4 +19,8 @@ public final class UserNotFoundException extends OutputGeneratorException {
         super(message, null);
     }
 
+    public UserNotFoundException(final Supplier<String> message) {
+        super(message);
+    }
+
 }
@@ -2,7 +2,18 @@ package org.poo.system.exchange;
 
 import org.poo.system.BankingSystem;
 
-public record Amount(double total, String currency) {
+public record Amount(double total, Currency unit) {
+
+    public Amount(final double total, final String currency) {
+        this(total, Currency.of(currency));
+    }
+
+    /**
+     * @return the amount's currency code
+     */
+    public String currency() {
+        return unit.getCode();
+    }
 
     /**
      * Creates a new {@code Amount} of 0 in the given currency
@@ -19,11 +30,20 @@ public record Amount(double total, String currency) {
      * @return a new amount in the requested currency
      */
     public Amount to(final String newCurrency) {
+        return to(Currency.of(newCurrency));
+    }
+
+    /**
+     * Converts the current amount to the given interned currency
+     * @param newUnit the currency to convert to
+     * @return a new amount in the requested currency
+     */
+    public Amount to(final Currency newUnit) {
         return new Amount(
                 total
                         * BankingSystem.getExchangeProvider()
-                            .getRate(this.currency, newCurrency),
-                newCurrency
+                            .getRate(this.unit, newUnit),
+                newUnit
         );
     }
 
@@ -34,7 +54,7 @@ public record Amount(double total, String currency) {
      * @return a new amount with {@code value} subtracted from it
      */
     public Amount sub(final double value) {
-        return new Amount(total - value, currency);
+        return new Amount(total - value, unit);
     }
 
     /**
@@ -44,7 +64,7 @@ public record Amount(double total, String currency) {
      * @return a new amount with {@code value} added to it
      */
     public Amount add(final double value) {
-        return new Amount(total + value, currency);
+        return new Amount(total + value, unit);
     }
 
     /**
@@ -54,11 +74,11 @@ public record Amount(double total, String currency) {
      * @return a new amount with {@code other} subtracted from it
      */
     public Amount sub(final Amount other) {
-        if (currency.equals(other.currency)) {
+        if (unit.equals(other.unit)) {
             return this.sub(other.total);
         }
 
-        return new Amount(total - other.to(currency).total, currency);
+        return new Amount(total - other.to(unit).total, unit);
     }
 
     /**
@@ -68,11 +88,11 @@ public record Amount(double total, String currency) {
      * @return a new amount with {@code other} added to it
      */
     public Amount add(final Amount other) {
-        if (currency.equals(other.currency)) {
+        if (unit.equals(other.unit)) {
             return this.add(other.total);
         }
 
-        return new Amount(total + other.to(currency).total, currency);
+        return new Amount(total + other.to(unit).total, unit);
     }
 
     /**
@@ -83,17 +103,17 @@ public record Amount(double total, String currency) {
      * @return a new amount with the new total
      */
     public Amount set(final double newTotal) {
-        return new Amount(newTotal, currency);
+        return new Amount(newTotal, unit);
     }
 
     @Override
     public String toString() {
-        return total + " " + currency;
+        return total + " " + unit;
     }
 
     @Override
     public Amount clone() {
-        return new Amount(total, currency);
+        return new Amount(total, unit);
     }
 
 }
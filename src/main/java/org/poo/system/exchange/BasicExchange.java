@@ -2,12 +2,10 @@ package org.poo.system.exchange;
 
 import org.poo.system.BankingSystem;
 import org.poo.system.exceptions.InputException;
+import org.poo.system.provider.InputProfile;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.NoSuchElementException;
-import java.util.Set;
 
 /**
  * An {@code ExceptionProvider} implementation that stores only the registered exchanges
@@ -17,8 +15,8 @@ import java.util.Set;
  */
 public final class BasicExchange implements ExchangeProvider {
 
-    private final Set<String> registeredCurrencies = new HashSet<>();
     private final List<Exchange> exchanges = new ArrayList<>();
+    private final RateTable rates = new RateTable();
 
     /**
      * {@inheritDoc}.
@@ -27,11 +25,13 @@ public final class BasicExchange implements ExchangeProvider {
     public void registerExchange(final Exchange exchange) {
 
 
-        registerCurrency(exchange.from());
-        registerCurrency(exchange.to());
+        Currency from = registerCurrency(exchange.from());
+        Currency to = registerCurrency(exchange.to());
 
         exchanges.add(exchange);
         exchanges.add(exchange.reversed());
+        rates.put(from, to, exchange.rate());
+        rates.put(to, from, exchange.reversed().rate());
     }
 
     /**
@@ -47,8 +47,10 @@ public final class BasicExchange implements ExchangeProvider {
      * {@inheritDoc}
      */
     @Override
-    public void registerCurrency(final String currency) {
-        registeredCurrencies.add(currency);
+    public Currency registerCurrency(final String currency) {
+        Currency interned = Currency.register(currency);
+        rates.register(interned);
+        return interned;
     }
 
     /**
@@ -56,8 +58,9 @@ public final class BasicExchange implements ExchangeProvider {
      */
     @Override
     public String verifyCurrency(final String currency) throws InputException {
-        if (registeredCurrencies.contains(currency)) {
-            return currency;
+        Currency interned = Currency.find(currency);
+        if (interned != null && rates.isRegistered(interned)) {
+            return interned.getCode();
         }
 
         throw new InputException("Invalid currency: " + currency);
@@ -71,14 +74,44 @@ public final class BasicExchange implements ExchangeProvider {
         if (from.equals(to)) {
             return 1.0;
         }
-        try {
-            return exchanges.parallelStream().filter(ex ->
-                    ex.from().equals(from)
-                            && ex.to().equals(to)
-            ).toList().getFirst().rate();
-        } catch (NoSuchElementException e) {
+
+        Currency fromCurrency = Currency.find(from);
+        Currency toCurrency = Currency.find(to);
+        if (fromCurrency == null || toCurrency == null) {
             throw new ExchangeException("No rate found for " + from + " -> " + to);
         }
+
+        return getRate(fromCurrency, toCurrency);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getRate(final Currency from, final Currency to) throws ExchangeException {
+        if (from.equals(to)) {
+            return 1.0;
+        }
+
+        // Detached currencies are looked up by their codes
+        if (!from.isRegistered() || !to.isRegistered()) {
+            return getRate(from.getCode(), to.getCode());
+        }
+
+        double rate = rates.get(from, to);
+        if (rate == 0) {
+            throw new ExchangeException("No rate found for " + from + " -> " + to);
+        }
+
+        return rate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getRatesVersion() {
+        return rates.getVersion();
     }
 
     /**
@@ -91,7 +124,7 @@ public final class BasicExchange implements ExchangeProvider {
                 .parallelStream()
                 .forEach(
                         exchange -> BankingSystem.log(
-                                exchange.from()
+                                () -> exchange.from()
                                         + " -> "
                                         + exchange.to()
                                         + " ["
@@ -101,4 +134,38 @@ public final class BasicExchange implements ExchangeProvider {
                 );
     }
 
+    /**
+     * Creates {@code BasicExchange} instances, preferred when every rate is given directly
+     */
+    public static final class Factory implements ExchangeProviderFactory {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getName() {
+            return "basic";
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ExchangeProvider create() {
+            return new BasicExchange();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Rating rate(final InputProfile profile) {
+            if (!profile.fullyConnected()) {
+                return new Rating(-1, "some currency pairs have no direct rate");
+            }
+
+            return new Rating(2, "every currency pair has a direct rate");
+        }
+
+    }
 }
@@ -2,13 +2,11 @@ package org.poo.system.exchange;
 
 import org.poo.system.BankingSystem;
 import org.poo.system.exceptions.InputException;
+import org.poo.system.provider.InputProfile;
 import org.poo.utils.Graph;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.NoSuchElementException;
-import java.util.Set;
 
 /**
  * An {@code ExceptionProvider} implementation that stores the registered exchanges
@@ -18,8 +16,8 @@ import java.util.Set;
  */
 public final class ComposedExchange implements ExchangeProvider {
 
-    private final Set<String> registeredCurrencies = new HashSet<>();
     private final List<Exchange> exchanges = new ArrayList<>();
+    private final RateTable rates = new RateTable();
 
     /**
      * Calculates all rates from a currency to another
@@ -47,13 +45,20 @@ public final class ComposedExchange implements ExchangeProvider {
         currencyGraph.computePaths(
                 (firstWeight, secondWeight) -> firstWeight * secondWeight
         ).forEach(
-                (key, value) -> exchanges.add(
-                        new Exchange(
-                                key.first(),
-                                key.second(),
-                                value
-                        )
-                )
+                (key, value) -> {
+                    exchanges.add(
+                            new Exchange(
+                                    key.first(),
+                                    key.second(),
+                                    value
+                            )
+                    );
+                    rates.put(
+                            Currency.register(key.first()),
+                            Currency.register(key.second()),
+                            value
+                    );
+                }
         );
 
     }
@@ -66,11 +71,13 @@ public final class ComposedExchange implements ExchangeProvider {
     public void registerExchange(final Exchange exchange) {
 
 
-        registerCurrency(exchange.from());
-        registerCurrency(exchange.to());
+        Currency from = registerCurrency(exchange.from());
+        Currency to = registerCurrency(exchange.to());
 
         exchanges.add(exchange);
         exchanges.add(exchange.reversed());
+        rates.put(from, to, exchange.rate());
+        rates.put(to, from, exchange.reversed().rate());
     }
 
     /**
@@ -88,8 +95,10 @@ public final class ComposedExchange implements ExchangeProvider {
      * {@inheritDoc}
      */
     @Override
-    public void registerCurrency(final String currency) {
-        registeredCurrencies.add(currency);
+    public Currency registerCurrency(final String currency) {
+        Currency interned = Currency.register(currency);
+        rates.register(interned);
+        return interned;
     }
 
     /**
@@ -97,8 +106,9 @@ public final class ComposedExchange implements ExchangeProvider {
      */
     @Override
     public String verifyCurrency(final String currency) throws InputException {
-        if (registeredCurrencies.contains(currency)) {
-            return currency;
+        Currency interned = Currency.find(currency);
+        if (interned != null && rates.isRegistered(interned)) {
+            return interned.getCode();
         }
 
         throw new InputException("Invalid currency: " + currency);
@@ -112,14 +122,44 @@ public final class ComposedExchange implements ExchangeProvider {
         if (from.equals(to)) {
             return 1.0;
         }
-        try {
-            return exchanges.parallelStream().filter(ex ->
-                    ex.from().equals(from)
-                            && ex.to().equals(to)
-            ).toList().getFirst().rate();
-        } catch (NoSuchElementException e) {
+
+        Currency fromCurrency = Currency.find(from);
+        Currency toCurrency = Currency.find(to);
+        if (fromCurrency == null || toCurrency == null) {
             throw new ExchangeException("No rate found for " + from + " -> " + to);
         }
+
+        return getRate(fromCurrency, toCurrency);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getRate(final Currency from, final Currency to) throws ExchangeException {
+        if (from.equals(to)) {
+            return 1.0;
+        }
+
+        // Detached currencies are looked up by their codes
+        if (!from.isRegistered() || !to.isRegistered()) {
+            return getRate(from.getCode(), to.getCode());
+        }
+
+        double rate = rates.get(from, to);
+        if (rate == 0) {
+            throw new ExchangeException("No rate found for " + from + " -> " + to);
+        }
+
+        return rate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getRatesVersion() {
+        return rates.getVersion();
     }
 
     /**
@@ -132,7 +172,7 @@ public final class ComposedExchange implements ExchangeProvider {
                 .parallelStream()
                 .forEach(
                         exchange -> BankingSystem.log(
-                                exchange.from()
+                                () -> exchange.from()
                                         + " -> "
                                         + exchange.to()
                                         + " ["
@@ -141,4 +181,35 @@ public final class ComposedExchange implements ExchangeProvider {
                         )
                 );
     }
+
+    /**
+     * Creates {@code ComposedExchange} instances, which can run any input
+     */
+    public static final class Factory implements ExchangeProviderFactory {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getName() {
+            return "composed";
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ExchangeProvider create() {
+            return new ComposedExchange();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Rating rate(final InputProfile profile) {
+            return new Rating(1, "computes indirect rates");
+        }
+
+    }
 }
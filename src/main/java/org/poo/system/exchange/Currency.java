@@ -0,0 +1,128 @@
+package org.poo.system.exchange;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An interned currency code
+ * </br>
+ * Every code registered through the exchange provider has exactly one {@code Currency}
+ * instance and a small integer id, so currencies can be used as array indexes.
+ * Codes that were never registered get detached instances, which are not interned
+ * and have no id. Currencies are equal when their codes are, so instances created
+ * before a {@code reset} or while restoring a snapshot still match the canonical ones
+ */
+@Getter
+public final class Currency {
+
+    /**
+     * The id of the currencies that were never registered
+     */
+    public static final int UNREGISTERED = -1;
+
+    private static final Map<String, Currency> REGISTRY = new ConcurrentHashMap<>();
+    private static int nextId = 0;
+
+    private final int id;
+    private final String code;
+
+    private Currency(final int id, final String code) {
+        this.id = id;
+        this.code = code;
+    }
+
+    /**
+     * Retrieves the canonical instance of a currency code
+     *
+     * @param code the currency code
+     * @return the canonical {@code Currency} or a detached one if the code was never registered
+     */
+    public static Currency of(final String code) {
+        Currency currency = REGISTRY.get(code);
+        if (currency != null) {
+            return currency;
+        }
+
+        return new Currency(UNREGISTERED, code);
+    }
+
+    /**
+     * Retrieves the canonical instance of a currency code without creating one
+     *
+     * @param code the currency code
+     * @return the canonical {@code Currency} or {@code null} if the code was never registered
+     */
+    public static Currency find(final String code) {
+        return REGISTRY.get(code);
+    }
+
+    /**
+     * @return the number of registered currencies, every id is lower than it
+     */
+    public static int count() {
+        return REGISTRY.size();
+    }
+
+    /**
+     * Forgets every registered currency, used between inputs.
+     * Instances created before are no longer canonical
+     */
+    public static synchronized void reset() {
+        REGISTRY.clear();
+        nextId = 0;
+    }
+
+    /**
+     * Interns a currency code, only the exchange providers register currencies
+     *
+     * @param code the currency code
+     * @return the canonical {@code Currency}
+     */
+    static synchronized Currency register(final String code) {
+        // Another thread might have registered it in the meantime
+        Currency currency = REGISTRY.get(code);
+        if (currency != null) {
+            return currency;
+        }
+
+        currency = new Currency(nextId++, code);
+        REGISTRY.put(code, currency);
+        return currency;
+    }
+
+    /**
+     * @return whether the instance is the canonical one of a registered code
+     */
+    public boolean isRegistered() {
+        return id != UNREGISTERED;
+    }
+
+    /**
+     * @param other the object to compare to
+     * @return whether the other object is a currency with the same code
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        return other instanceof Currency currency && code.equals(currency.code);
+    }
+
+    /**
+     * @return the currency's hash
+     */
+    @Override
+    public int hashCode() {
+        return code.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+
+}
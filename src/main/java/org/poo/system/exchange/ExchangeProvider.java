@@ -22,14 +22,15 @@ public interface ExchangeProvider {
      * Registers a currency
      *
      * @param currency the currency to register
+     * @return the interned currency
      */
-    void registerCurrency(String currency);
+    Currency registerCurrency(String currency);
 
     /**
      * Verifies if the given string is a registered currency
      *
      * @param currency the currency to verify
-     * @return the currency string is it's valid
+     * @return the canonical currency string if it's valid
      * @throws InputException if the currency is not a registered currency
      */
     String verifyCurrency(String currency) throws InputException;
@@ -44,6 +45,22 @@ public interface ExchangeProvider {
      */
     double getRate(String from, String to) throws ExchangeException;
 
+    /**
+     * Finds the rate from a given interned currency to another
+     *
+     * @param from the currency to exchange from
+     * @param to   the currency to exchange to
+     * @return the rate of exchange from {@code from} to {@code to}
+     * @throws ExchangeException if no exchange between the two currencies exists
+     */
+    double getRate(Currency from, Currency to) throws ExchangeException;
+
+    /**
+     * @return a counter that changes every time a rate is registered or computed,
+     * used to invalidate values derived from the rates
+     */
+    int getRatesVersion();
+
     /**
      * Prints all rates from a currency to any other
      */
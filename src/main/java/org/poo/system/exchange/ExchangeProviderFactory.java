@@ -0,0 +1,10 @@
+package org.poo.system.exchange;
+
+import org.poo.system.provider.ProviderFactory;
+
+/**
+ * Creates {@code ExchangeProvider} instances,
+ * implementations are registered as services
+ */
+public interface ExchangeProviderFactory extends ProviderFactory<ExchangeProvider> {
+}
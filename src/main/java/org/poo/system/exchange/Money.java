@@ -0,0 +1,133 @@
+package org.poo.system.exchange;
+
+import org.poo.system.BankingSystem;
+import org.poo.system.exceptions.OperationException;
+
+/**
+ * Fixed-point money arithmetic on scaled {@code long} minor units
+ * </br>
+ * Balances are kept as units so that the hot paths neither allocate
+ * {@code Amount} instances nor accumulate floating point drift,
+ * {@code Amount} is only used at the API edges
+ */
+public final class Money {
+
+    /**
+     * The number of minor units in one unit of any currency
+     */
+    public static final long SCALE = 100_000_000L;
+
+    // Scaled totals must stay below 2^63 in magnitude to fit a long
+    private static final double UNITS_BOUND = 0x1p63;
+
+    private Money() {
+
+    }
+
+    /**
+     * Converts a decimal total to minor units
+     *
+     * @param total the total to convert
+     * @return the closest number of minor units
+     * @throws OperationException if the total doesn't fit in minor units
+     */
+    public static long fromTotal(final double total) throws OperationException {
+        double scaled = total * SCALE;
+
+        // Math.round would silently saturate, NaN fails the check as well
+        if (!(scaled >= -UNITS_BOUND && scaled < UNITS_BOUND)) {
+            throw new OperationException("Total out of the minor units range: " + total);
+        }
+
+        return Math.round(scaled);
+    }
+
+    /**
+     * Adds two values in minor units
+     *
+     * @param units the first value
+     * @param other the value to add
+     * @return the sum
+     * @throws OperationException if the sum doesn't fit in minor units
+     */
+    public static long add(final long units, final long other) throws OperationException {
+        try {
+            return Math.addExact(units, other);
+        } catch (ArithmeticException e) {
+            throw new OperationException("Sum out of the minor units range");
+        }
+    }
+
+    /**
+     * Subtracts a value in minor units from another
+     *
+     * @param units the value to subtract from
+     * @param other the value to subtract
+     * @return the difference
+     * @throws OperationException if the difference doesn't fit in minor units
+     */
+    public static long subtract(final long units, final long other) throws OperationException {
+        try {
+            return Math.subtractExact(units, other);
+        } catch (ArithmeticException e) {
+            throw new OperationException("Difference out of the minor units range");
+        }
+    }
+
+    /**
+     * Converts minor units to a decimal total
+     *
+     * @param units the minor units to convert
+     * @return the decimal total
+     */
+    public static double toTotal(final long units) {
+        return (double) units / SCALE;
+    }
+
+    /**
+     * Converts an amount to minor units of the given currency
+     *
+     * @param amount the amount to convert
+     * @param unit the currency of the resulting units
+     * @return the amount's value in minor units of {@code unit}
+     * @throws ExchangeException if no exchange between the two currencies exists
+     * @throws OperationException if the value doesn't fit in minor units
+     */
+    public static long of(
+            final Amount amount,
+            final Currency unit
+    ) throws ExchangeException, OperationException {
+        if (amount.unit().equals(unit)) {
+            return fromTotal(amount.total());
+        }
+
+        return fromTotal(
+                amount.total()
+                        * BankingSystem.getExchangeProvider()
+                            .getRate(amount.unit(), unit)
+        );
+    }
+
+    /**
+     * Creates an {@code Amount} from minor units
+     *
+     * @param units the minor units
+     * @param unit the currency of the units
+     * @return a new amount holding the same value
+     */
+    public static Amount toAmount(final long units, final Currency unit) {
+        return new Amount(toTotal(units), unit);
+    }
+
+    /**
+     * Formats minor units the same way {@code Amount} does
+     *
+     * @param units the minor units
+     * @param unit the currency of the units
+     * @return the textual representation of the value
+     */
+    public static String format(final long units, final Currency unit) {
+        return toTotal(units) + " " + unit;
+    }
+
+}
@@ -0,0 +1,89 @@
+package org.poo.system.exchange;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Registered currencies and rates indexed by {@code Currency} ids
+ * </br>
+ * Lookups are two array accesses, a missing rate is stored as {@code 0}
+ */
+final class RateTable {
+
+    private final BitSet registered = new BitSet();
+    private double[][] rates = new double[0][];
+    private int version = 0;
+
+    /**
+     * Marks a currency as registered
+     *
+     * @param currency the currency to register
+     */
+    void register(final Currency currency) {
+        registered.set(currency.getId());
+    }
+
+    /**
+     * @param currency the currency to check
+     * @return whether the currency was registered
+     */
+    boolean isRegistered(final Currency currency) {
+        return registered.get(currency.getId());
+    }
+
+    /**
+     * Stores a rate, the first rate stored between two currencies is kept
+     *
+     * @param from the currency to exchange from
+     * @param to the currency to exchange to
+     * @param rate the rate of exchange
+     */
+    void put(final Currency from, final Currency to, final double rate) {
+        ensureCapacity(Math.max(from.getId(), to.getId()) + 1);
+
+        double[] row = rates[from.getId()];
+        if (row[to.getId()] == 0) {
+            row[to.getId()] = rate;
+            version++;
+        }
+    }
+
+    /**
+     * @return a counter incremented every time a rate is stored
+     */
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * @param from the currency to exchange from
+     * @param to the currency to exchange to
+     * @return the rate of exchange or {@code 0} if none was stored
+     */
+    double get(final Currency from, final Currency to) {
+        if (!from.isRegistered() || !to.isRegistered()
+                || from.getId() >= rates.length || to.getId() >= rates.length) {
+            return 0;
+        }
+
+        return rates[from.getId()][to.getId()];
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity <= rates.length) {
+            return;
+        }
+
+        // Grow to every currency interned so far, new ones are rare
+        int newCapacity = Math.max(capacity, Currency.count());
+        double[][] grown = Arrays.copyOf(rates, newCapacity);
+        for (int i = 0; i < newCapacity; i++) {
+            grown[i] = i < rates.length
+                    ? Arrays.copyOf(rates[i], newCapacity)
+                    : new double[newCapacity];
+        }
+
+        rates = grown;
+    }
+
+}
@@ -0,0 +1,79 @@
+package org.poo.system.history;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.poo.system.Transaction;
+
+/**
+ * A read-only view of a record from a {@code TransactionStore}
+ * </br>
+ * The header fields are read directly from the mapped region,
+ * the other fields are decoded only when requested
+ */
+final class StoredTransaction implements Transaction {
+
+    private final TransactionStore store;
+    private final long offset;
+
+    StoredTransaction(final TransactionStore store, final long offset) {
+        this.store = store;
+        this.offset = offset;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObjectNode toNode() {
+        return decode().toNode();
+    }
+
+    /**
+     * @return a new transaction, equal to the one stored in the record
+     */
+    Transaction.Base decode() {
+        return store.decode(offset);
+    }
+
+    /**
+     * Stored records are immutable, there is no need to copy them
+     *
+     * @return this transaction
+     */
+    @Override
+    public Transaction clone() {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTimestamp() {
+        return store.timestamp(offset);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getCommerciant() {
+        return store.commerciant(offset);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getAmount() {
+        return store.amount(offset);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compareTo(final Transaction o) {
+        return getTimestamp() - o.getTimestamp();
+    }
+
+}
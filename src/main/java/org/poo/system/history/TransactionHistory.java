@@ -0,0 +1,256 @@
+package org.poo.system.history;
+
+import org.poo.system.Transaction;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The transactions of an account, in the order they were made
+ * </br>
+ * Every transaction is copied to the {@code TransactionStore} when it's added,
+ * the heap only keeps the offsets and timestamps of the records.
+ * Later changes to the added object don't affect the history
+ * </br>
+ * Transactions are mostly added in timestamp order, except for the ones settled later
+ * (like split payments). Those are tracked separately, so timestamp ranges can be
+ * looked up with a binary search over the running maximum of the timestamps
+ */
+public final class TransactionHistory extends AbstractList<Transaction> {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final TransactionStore store;
+    // Called before a transaction is added, see {@code BankingSystem.beforeUpdate}
+    private final Runnable beforeAdd;
+
+    // Offsets of the records in the store, in order
+    private long[] offsets = new long[INITIAL_CAPACITY];
+    // Timestamps of the records and their running maximum, parallel to the offsets
+    private int[] timestamps = new int[INITIAL_CAPACITY];
+    private int[] ceilings = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    // Positions of the records older than a record added before them, in order
+    private int[] late = new int[INITIAL_CAPACITY];
+    private int lateCount = 0;
+
+    public TransactionHistory(final TransactionStore store, final Runnable beforeAdd) {
+        this.store = store;
+        this.beforeAdd = beforeAdd;
+    }
+
+    /**
+     * Appends a transaction to the history
+     *
+     * @param transaction the transaction to append
+     * @return always true
+     */
+    @Override
+    public boolean add(final Transaction transaction) {
+        beforeAdd.run();
+        track(store.append(transaction), transaction.getTimestamp());
+        modCount++;
+
+        return true;
+    }
+
+    /**
+     * Writes the records of the history as they are stored,
+     * see {@code TransactionStore.writeRecord}
+     *
+     * @param output the output to write to
+     * @throws IOException if the records can't be written
+     */
+    public void writeTo(final DataOutput output) throws IOException {
+        output.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            store.writeRecord(offsets[i], output);
+        }
+    }
+
+    /**
+     * Appends the records written by {@code writeTo}
+     *
+     * @param input the input to read from
+     * @throws IOException if the records can't be read
+     */
+    public void readFrom(final DataInput input) throws IOException {
+        int count = input.readInt();
+        for (int i = 0; i < count; i++) {
+            long offset = store.readRecord(input);
+            track(offset, store.timestamp(offset));
+        }
+        modCount++;
+    }
+
+    private void track(final long offset, final int timestamp) {
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            ceilings = Arrays.copyOf(ceilings, size * 2);
+        }
+
+        if (size > 0 && timestamp < ceilings[size - 1]) {
+            if (lateCount == late.length) {
+                late = Arrays.copyOf(late, lateCount * 2);
+            }
+            late[lateCount++] = size;
+        }
+
+        offsets[size] = offset;
+        timestamps[size] = timestamp;
+        ceilings[size] = size > 0 ? Math.max(ceilings[size - 1], timestamp) : timestamp;
+        size++;
+    }
+
+    /**
+     * @param index the position of the transaction
+     * @return a view of the transaction's record
+     */
+    @Override
+    public Transaction get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+
+        return new StoredTransaction(store, offsets[index]);
+    }
+
+    /**
+     * Retrieves the transactions made between two timestamps
+     * </br>
+     * Everything before the first running maximum reaching {@code start} is older,
+     * everything after the first running maximum passing {@code end} is newer,
+     * except for the late records which are checked one by one
+     *
+     * @param start the first timestamp of the range (inclusive)
+     * @param end the last timestamp of the range (inclusive)
+     * @return the transactions inside the range, in the order they were added
+     */
+    public List<Transaction> between(final int start, final int end) {
+        List<Transaction> result = new ArrayList<>();
+        if (start > end) {
+            return result;
+        }
+
+        int first = firstAbove(ceilings, size, (long) start - 1);
+        int last = firstAbove(ceilings, size, end);
+
+        for (int i = first; i < last; i++) {
+            if (timestamps[i] >= start) {
+                result.add(get(i));
+            }
+        }
+
+        // Late records after the range can still be inside it
+        int lateIndex = Arrays.binarySearch(late, 0, lateCount, last);
+        if (lateIndex < 0) {
+            lateIndex = -lateIndex - 1;
+        }
+        for (; lateIndex < lateCount; lateIndex++) {
+            int position = late[lateIndex];
+            if (timestamps[position] >= start && timestamps[position] <= end) {
+                result.add(get(position));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Iterates the transactions sorted by timestamp,
+     * transactions with equal timestamps keep the order they were added in
+     * </br>
+     * The records added in order are merged with the sorted late records,
+     * without sorting the whole history
+     *
+     * @return an iterator over the sorted transactions
+     */
+    public Iterator<Transaction> inTimestampOrder() {
+        // Sort the late records by timestamp, then by position
+        long[] sortedLate = new long[lateCount];
+        for (int i = 0; i < lateCount; i++) {
+            sortedLate[i] = ((long) timestamps[late[i]] << Integer.SIZE) | late[i];
+        }
+        Arrays.sort(sortedLate);
+
+        return new Iterator<>() {
+            // Next record added in order, next late record to skip over
+            private int position = 0;
+            private int skipped = 0;
+            // Next late record to return
+            private int lateIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                skipLate();
+                return position < size || lateIndex < lateCount;
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                if (lateIndex < lateCount) {
+                    int latePosition = (int) sortedLate[lateIndex];
+                    if (position >= size
+                            || timestamps[latePosition] < timestamps[position]
+                            || (timestamps[latePosition] == timestamps[position]
+                                && latePosition < position)) {
+                        lateIndex++;
+                        return get(latePosition);
+                    }
+                }
+
+                return get(position++);
+            }
+
+            private void skipLate() {
+                while (skipped < lateCount && late[skipped] == position) {
+                    position++;
+                    skipped++;
+                }
+            }
+        };
+    }
+
+    /**
+     * @param array a non-decreasing array
+     * @param length the number of used elements
+     * @param value the value to compare with
+     * @return the first position holding an element greater than the value
+     */
+    private static int firstAbove(final int[] array, final int length, final long value) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (array[middle] > value) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * @return the number of transactions
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+}
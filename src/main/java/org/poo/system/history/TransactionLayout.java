@@ -0,0 +1,275 @@
+package org.poo.system.history;
+
+import org.poo.system.Transaction;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * The binary layout of a transaction type, built once for every class from its fields
+ * </br>
+ * The description comes first, followed by the fields declared by the type,
+ * in declaration order. Strings and enum constants take 4 bytes (an id),
+ * numbers their primitive width, so every record of a type has the same layout.
+ * Only lists are variable, their elements follow a 4 byte count
+ */
+final class TransactionLayout {
+
+    private enum Kind {
+        STRING(Integer.BYTES),
+        DOUBLE(Double.BYTES),
+        BOXED_DOUBLE(Byte.BYTES + Double.BYTES),
+        ENUM(Integer.BYTES),
+        STRING_LIST(Integer.BYTES),
+        DOUBLE_LIST(Integer.BYTES);
+
+        private final int size;
+
+        Kind(final int size) {
+            this.size = size;
+        }
+    }
+
+    // Id written for null strings, enum constants and lists
+    private static final int NULL_ID = -1;
+
+    private static final ClassValue<TransactionLayout> LAYOUTS = new ClassValue<>() {
+        @Override
+        protected TransactionLayout computeValue(final Class<?> type) {
+            return new TransactionLayout(type.asSubclass(Transaction.Base.class));
+        }
+    };
+
+    private static final Field DESCRIPTION = accessibleField(Transaction.Base.class, "description");
+
+    private final Constructor<? extends Transaction.Base> constructor;
+    private final Field[] fields;
+    private final Kind[] kinds;
+    private final int fixedSize;
+
+    private TransactionLayout(final Class<? extends Transaction.Base> type) {
+        try {
+            constructor = type.getConstructor(String.class, int.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(
+                    "Transaction type without a (description, timestamp) constructor: "
+                            + type.getName(),
+                    e
+            );
+        }
+
+        List<Field> declared = new ArrayList<>();
+        if (type != Transaction.Base.class) {
+            for (Field field : type.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                    field.setAccessible(true);
+                    declared.add(field);
+                }
+            }
+        }
+
+        fields = declared.toArray(new Field[0]);
+        kinds = new Kind[fields.length];
+        int size = Kind.STRING.size;
+        for (int i = 0; i < fields.length; i++) {
+            kinds[i] = kindOf(fields[i]);
+            size += kinds[i].size;
+        }
+        fixedSize = size;
+    }
+
+    /**
+     * @param type the class of the transaction
+     * @return the layout of the type
+     */
+    static TransactionLayout of(final Class<?> type) {
+        return LAYOUTS.get(type);
+    }
+
+    /**
+     * @param transaction the transaction to measure
+     * @return the number of bytes written by {@code write}
+     */
+    int size(final Transaction.Base transaction) {
+        int size = fixedSize;
+        for (int i = 0; i < fields.length; i++) {
+            if (kinds[i] == Kind.STRING_LIST || kinds[i] == Kind.DOUBLE_LIST) {
+                List<?> list = (List<?>) get(fields[i], transaction);
+                int elementSize = kinds[i] == Kind.STRING_LIST ? Integer.BYTES : Double.BYTES;
+                size += list == null ? 0 : list.size() * elementSize;
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Writes the fields of a transaction at the buffer's position
+     *
+     * @param output the buffer to write to
+     * @param transaction the transaction to write
+     * @param strings gives the id of a string, registering it if needed
+     */
+    void write(
+            final ByteBuffer output,
+            final Transaction.Base transaction,
+            final ToIntFunction<String> strings
+    ) {
+        output.putInt(stringId((String) get(DESCRIPTION, transaction), strings));
+
+        for (int i = 0; i < fields.length; i++) {
+            Object value = get(fields[i], transaction);
+            switch (kinds[i]) {
+                case STRING -> output.putInt(stringId((String) value, strings));
+                case DOUBLE -> output.putDouble((Double) value);
+                case BOXED_DOUBLE -> {
+                    output.put((byte) (value == null ? 0 : 1));
+                    output.putDouble(value == null ? 0 : (Double) value);
+                }
+                case ENUM -> output.putInt(value == null ? NULL_ID : ((Enum<?>) value).ordinal());
+                case STRING_LIST -> {
+                    List<?> list = (List<?>) value;
+                    output.putInt(list == null ? NULL_ID : list.size());
+                    if (list != null) {
+                        for (Object element : list) {
+                            output.putInt(stringId(element.toString(), strings));
+                        }
+                    }
+                }
+                case DOUBLE_LIST -> {
+                    List<?> list = (List<?>) value;
+                    output.putInt(list == null ? NULL_ID : list.size());
+                    if (list != null) {
+                        for (Object element : list) {
+                            output.putDouble((Double) element);
+                        }
+                    }
+                }
+                default -> throw new IllegalStateException("Unknown field kind: " + kinds[i]);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds a transaction from the fields written by {@code write}
+     *
+     * @param input the buffer to read from, positioned after the record header
+     * @param timestamp the timestamp of the transaction, kept in the record header
+     * @param strings gives the string of an id
+     * @return a new transaction, equal to the written one
+     */
+    Transaction.Base read(
+            final ByteBuffer input,
+            final int timestamp,
+            final IntFunction<String> strings
+    ) {
+        Transaction.Base transaction;
+        try {
+            transaction = constructor.newInstance(string(input.getInt(), strings), timestamp);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+
+        for (int i = 0; i < fields.length; i++) {
+            Object value = switch (kinds[i]) {
+                case STRING -> string(input.getInt(), strings);
+                case DOUBLE -> input.getDouble();
+                case BOXED_DOUBLE -> {
+                    boolean present = input.get() != 0;
+                    double number = input.getDouble();
+                    yield present ? number : null;
+                }
+                case ENUM -> {
+                    int ordinal = input.getInt();
+                    yield ordinal == NULL_ID
+                            ? null
+                            : fields[i].getType().getEnumConstants()[ordinal];
+                }
+                case STRING_LIST -> {
+                    int count = input.getInt();
+                    List<String> list = count == NULL_ID ? null : new ArrayList<>(count);
+                    for (int j = 0; j < count; j++) {
+                        list.add(string(input.getInt(), strings));
+                    }
+                    yield list == null ? null : Collections.unmodifiableList(list);
+                }
+                case DOUBLE_LIST -> {
+                    int count = input.getInt();
+                    List<Double> list = count == NULL_ID ? null : new ArrayList<>(count);
+                    for (int j = 0; j < count; j++) {
+                        list.add(input.getDouble());
+                    }
+                    yield list == null ? null : Collections.unmodifiableList(list);
+                }
+            };
+
+            try {
+                fields[i].set(transaction, value);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        return transaction;
+    }
+
+    private static Kind kindOf(final Field field) {
+        Class<?> type = field.getType();
+        if (type == String.class) {
+            return Kind.STRING;
+        } else if (type == double.class) {
+            return Kind.DOUBLE;
+        } else if (type == Double.class) {
+            return Kind.BOXED_DOUBLE;
+        } else if (type.isEnum()) {
+            return Kind.ENUM;
+        } else if (type == List.class
+                && field.getGenericType() instanceof ParameterizedType parameterized) {
+            return parameterized.getActualTypeArguments()[0] == Double.class
+                    ? Kind.DOUBLE_LIST
+                    : Kind.STRING_LIST;
+        }
+
+        throw new IllegalArgumentException(
+                "Unsupported transaction field: "
+                        + field.getDeclaringClass().getName()
+                        + "."
+                        + field.getName()
+        );
+    }
+
+    private static int stringId(final String value, final ToIntFunction<String> strings) {
+        return value == null ? NULL_ID : strings.applyAsInt(value);
+    }
+
+    private static String string(final int id, final IntFunction<String> strings) {
+        return id == NULL_ID ? null : strings.apply(id);
+    }
+
+    private static Object get(final Field field, final Object owner) {
+        try {
+            return field.get(owner);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Field accessibleField(final Class<?> type, final String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+}
@@ -0,0 +1,347 @@
+package org.poo.system.history;
+
+import org.poo.system.BankingSystem;
+import org.poo.system.Transaction;
+
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An append-only store of transaction records, kept in memory-mapped segment files
+ * </br>
+ * Every record has a fixed header (length, type, timestamp, commerciant, amount),
+ * so reports can filter records without decoding them, followed by the transaction's
+ * fields laid out by {@code TransactionLayout}. Strings are stored once in a table,
+ * records only keep their id. Records are addressed by their offset in the store
+ * and never change once written, so they hold the transaction as it was when added
+ * </br>
+ * Records are appended by the executor thread only. The snapshot thread copies
+ * the records written before its capture started, so the segments and the string table
+ * are kept in arrays which are replaced when they grow, never resized in place
+ */
+public final class TransactionStore implements Closeable {
+
+    private static final int SEGMENT_SIZE = 4 * 1024 * 1024;
+    // Record layout: length, type, timestamp, commerciant id, amount, fields
+    private static final int HEADER_SIZE = 4 * Integer.BYTES + Double.BYTES;
+    private static final int TYPE_OFFSET = Integer.BYTES;
+    private static final int TIMESTAMP_OFFSET = 2 * Integer.BYTES;
+    private static final int COMMERCIANT_OFFSET = 3 * Integer.BYTES;
+    private static final int AMOUNT_OFFSET = 4 * Integer.BYTES;
+    private static final String SEGMENT_FORMAT = "segment-%06d.dat";
+    private static final int INITIAL_STRINGS = 64;
+
+    // Id stored for transactions without a commerciant
+    private static final int NO_COMMERCIANT = -1;
+
+    private final Path directory;
+    private final List<FileChannel> channels = new ArrayList<>();
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    // Strings of the records (types, descriptions, IBANs...) indexed by their id
+    private volatile String[] strings = new String[INITIAL_STRINGS];
+    private int stringCount = 0;
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    // Layouts of the record types, indexed by the id of the type's name
+    private final Map<Integer, TransactionLayout> layouts = new HashMap<>();
+
+    private long records = 0;
+
+    private TransactionStore(final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Creates an empty store inside a new temporary directory
+     *
+     * @return the created store
+     * @throws IOException if the directory can't be created
+     */
+    public static TransactionStore create() throws IOException {
+        TransactionStore store = new TransactionStore(
+                Files.createTempDirectory("transactions")
+        );
+        store.mapSegment();
+
+        return store;
+    }
+
+    /**
+     * Appends a copy of a transaction to the store
+     *
+     * @param transaction the transaction to append
+     * @return the offset of the record
+     */
+    public long append(final Transaction transaction) {
+        Transaction.Base base = transaction instanceof StoredTransaction stored
+                ? stored.decode()
+                : (Transaction.Base) transaction;
+        TransactionLayout layout = TransactionLayout.of(base.getClass());
+
+        int recordSize = HEADER_SIZE + layout.size(base);
+        if (recordSize > SEGMENT_SIZE) {
+            throw new IllegalArgumentException(
+                    "Transaction too large for the store: " + recordSize + " bytes"
+            );
+        }
+
+        MappedByteBuffer segment = reserve(recordSize);
+        long offset = offsetOf(segment);
+        String commerciant = base.getCommerciant();
+        segment.putInt(recordSize);
+        segment.putInt(stringId(base.getClass().getName()));
+        segment.putInt(base.getTimestamp());
+        segment.putInt(commerciant == null ? NO_COMMERCIANT : stringId(commerciant));
+        segment.putDouble(base.getAmount());
+        layout.write(segment, base, this::stringId);
+        records++;
+
+        return offset;
+    }
+
+    /**
+     * @param offset the offset of the record
+     * @return the timestamp of the record
+     */
+    public int timestamp(final long offset) {
+        return segment(offset).getInt(position(offset) + TIMESTAMP_OFFSET);
+    }
+
+    /**
+     * @param offset the offset of the record
+     * @return the commerciant of the record or null if it has none
+     */
+    public String commerciant(final long offset) {
+        int id = segment(offset).getInt(position(offset) + COMMERCIANT_OFFSET);
+        return id == NO_COMMERCIANT ? null : strings[id];
+    }
+
+    /**
+     * @param offset the offset of the record
+     * @return the amount of the record, see {@code Transaction.getAmount}
+     */
+    public double amount(final long offset) {
+        return segment(offset).getDouble(position(offset) + AMOUNT_OFFSET);
+    }
+
+    /**
+     * Rebuilds the transaction held by a record
+     *
+     * @param offset the offset of the record
+     * @return a new transaction, equal to the one appended
+     */
+    public Transaction.Base decode(final long offset) {
+        MappedByteBuffer segment = segment(offset);
+        int position = position(offset);
+
+        TransactionLayout layout = layout(segment.getInt(position + TYPE_OFFSET));
+        ByteBuffer fields = segment.slice(
+                position + HEADER_SIZE,
+                segment.getInt(position) - HEADER_SIZE
+        );
+        String[] table = strings;
+        return layout.read(fields, timestamp(offset), id -> table[id]);
+    }
+
+    /**
+     * @return the number of strings in the table, the ids of the strings
+     * used by the records written so far are all lower
+     */
+    public int stringCount() {
+        return stringCount;
+    }
+
+    /**
+     * Writes the first strings of the table, can be called from the snapshot thread
+     *
+     * @param output the output to write to
+     * @param count the number of strings to write, see {@code stringCount}
+     * @throws IOException if the strings can't be written
+     */
+    public void writeStrings(final DataOutput output, final int count) throws IOException {
+        String[] table = strings;
+        output.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            output.writeUTF(table[i]);
+        }
+    }
+
+    /**
+     * Reads a string table written by {@code writeStrings},
+     * so the copied records can be appended without changing their ids
+     *
+     * @param input the input to read from
+     * @throws IOException if the strings can't be read
+     * @throws IllegalStateException if the store already has strings
+     */
+    public void readStrings(final DataInput input) throws IOException {
+        if (stringCount > 0) {
+            throw new IllegalStateException("Strings can only be read into an empty store");
+        }
+
+        int count = input.readInt();
+        for (int i = 0; i < count; i++) {
+            stringId(input.readUTF());
+        }
+    }
+
+    /**
+     * Copies a record as it is stored, can be called from the snapshot thread
+     * for the records written before the capture started
+     *
+     * @param offset the offset of the record
+     * @param output the output to write to
+     * @throws IOException if the record can't be written
+     */
+    public void writeRecord(final long offset, final DataOutput output) throws IOException {
+        MappedByteBuffer segment = segment(offset);
+        int position = position(offset);
+
+        byte[] record = new byte[segment.getInt(position)];
+        segment.get(position, record);
+        output.write(record);
+    }
+
+    /**
+     * Appends a record copied by {@code writeRecord}, its strings must be in the table
+     *
+     * @param input the input to read from
+     * @return the offset of the record
+     * @throws IOException if the record can't be read or is corrupted
+     */
+    public long readRecord(final DataInput input) throws IOException {
+        int recordSize = input.readInt();
+        if (recordSize < HEADER_SIZE || recordSize > SEGMENT_SIZE) {
+            throw new IOException("Corrupted transaction record of " + recordSize + " bytes");
+        }
+
+        byte[] record = new byte[recordSize];
+        ByteBuffer.wrap(record).putInt(recordSize);
+        input.readFully(record, Integer.BYTES, recordSize - Integer.BYTES);
+
+        MappedByteBuffer segment = reserve(recordSize);
+        long offset = offsetOf(segment);
+        segment.put(record);
+        records++;
+
+        return offset;
+    }
+
+    /**
+     * Releases the segment files and deletes them
+     *
+     * @throws IOException if the segment files can't be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        BankingSystem.log(
+                () -> "Closing transaction store: "
+                        + records
+                        + " records in "
+                        + segments.length
+                        + " segments"
+        );
+
+        for (FileChannel channel : channels) {
+            channel.close();
+        }
+        for (int i = 0; i < segments.length; i++) {
+            Files.deleteIfExists(segmentPath(i));
+        }
+        Files.deleteIfExists(directory);
+
+        channels.clear();
+        segments = new MappedByteBuffer[0];
+    }
+
+    private int stringId(final String value) {
+        Integer id = stringIds.get(value);
+        if (id != null) {
+            return id;
+        }
+
+        // Grow into a new array, the snapshot thread may still read the old one
+        String[] table = strings;
+        if (stringCount == table.length) {
+            table = Arrays.copyOf(table, stringCount * 2);
+        }
+        table[stringCount] = value;
+        strings = table;
+
+        stringIds.put(value, stringCount);
+        return stringCount++;
+    }
+
+    private TransactionLayout layout(final int typeId) {
+        return layouts.computeIfAbsent(typeId, id -> {
+            try {
+                return TransactionLayout.of(Class.forName(strings[id]));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Unknown transaction type: " + strings[id], e);
+            }
+        });
+    }
+
+    /**
+     * @param recordSize the size of the record to write
+     * @return the segment to write the record to, positioned where it starts
+     */
+    private MappedByteBuffer reserve(final int recordSize) {
+        MappedByteBuffer segment = segments[segments.length - 1];
+        if (segment.remaining() < recordSize) {
+            mapSegment();
+            segment = segments[segments.length - 1];
+        }
+
+        return segment;
+    }
+
+    private long offsetOf(final MappedByteBuffer segment) {
+        return (long) (segments.length - 1) * SEGMENT_SIZE + segment.position();
+    }
+
+    private MappedByteBuffer segment(final long offset) {
+        return segments[(int) (offset / SEGMENT_SIZE)];
+    }
+
+    private static int position(final long offset) {
+        return (int) (offset % SEGMENT_SIZE);
+    }
+
+    private void mapSegment() {
+        try {
+            FileChannel channel = FileChannel.open(
+                    segmentPath(segments.length),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE
+            );
+            channels.add(channel);
+
+            MappedByteBuffer[] grown = Arrays.copyOf(segments, segments.length + 1);
+            grown[segments.length] = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+            segments = grown;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path segmentPath(final int index) {
+        return directory.resolve(String.format(SEGMENT_FORMAT, index));
+    }
+
+}
@@ -0,0 +1,286 @@
+package org.poo.system.journal;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.poo.system.BankingSystem;
+import org.poo.system.command.base.Command;
+import org.poo.system.exceptions.InputException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+/**
+ * A write-ahead journal of the commands run by the system
+ * </br>
+ * Records are appended to memory-mapped segment files and forced to disk in groups,
+ * each one holding a command encoded by {@code JournalCodec}.
+ * A torn or corrupted record marks the end of the journal,
+ * everything after it is discarded when the journal is opened
+ */
+public final class CommandJournal implements Closeable {
+
+    public enum Mode {
+        DISABLED,
+        BEFORE_EXECUTION,
+        AFTER_EXECUTION;
+
+        @Override
+        public String toString() {
+            return this.name().toLowerCase();
+        }
+
+        /**
+         * Converts a {@code String} to a {@code CommandJournal.Mode}
+         *
+         * @param label the string to convert
+         * @return the corresponding {@code CommandJournal.Mode}
+         * @throws InputException if the label can't be converted to a {@code CommandJournal.Mode}
+         */
+        public static CommandJournal.Mode fromString(final String label) throws InputException {
+            try {
+                return Arrays
+                        .stream(CommandJournal.Mode.values())
+                        .filter(mode -> mode.name().equalsIgnoreCase(label))
+                        .toList()
+                        .getFirst();
+            } catch (NoSuchElementException e) {
+                throw new InputException("Unknown journal mode: " + label);
+            }
+        }
+    }
+
+    private static final int SEGMENT_SIZE = 4 * 1024 * 1024;
+    // Record layout: payload length, payload checksum, payload
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final String SEGMENT_FORMAT = "segment-%06d.wal";
+
+    private final Path directory;
+    private final int batchSize;
+    private final JournalCodec codec = new JournalCodec();
+
+    // Commands read from the journal when it was opened, in order
+    private final List<JsonNode> recovered = new ArrayList<>();
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int segmentIndex = 0;
+    private int unsynced = 0;
+
+    private CommandJournal(final Path directory, final int batchSize) {
+        this.directory = directory;
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    /**
+     * Opens the journal stored in the given directory, recovering its records
+     *
+     * @param directory the directory holding the segment files
+     * @param batchSize the number of records forced to disk together
+     * @return the opened journal, positioned after its last valid record
+     * @throws IOException if the segment files can't be read or created
+     */
+    public static CommandJournal open(
+            final Path directory,
+            final int batchSize
+    ) throws IOException {
+        Files.createDirectories(directory);
+
+        CommandJournal journal = new CommandJournal(directory, batchSize);
+        journal.recover();
+
+        BankingSystem.log(
+                () -> "Recovered " + journal.recovered.size() + " journaled commands"
+        );
+
+        return journal;
+    }
+
+    /**
+     * Appends a command to the journal
+     *
+     * @param command the command to append
+     * @throws IOException if the command can't be encoded or a new segment can't be created
+     */
+    public void append(final Command.Base command) throws IOException {
+        int mark = codec.mark();
+        byte[] payload = codec.encode(command.getSource());
+        if (HEADER_SIZE + payload.length > SEGMENT_SIZE) {
+            codec.rollback(mark);
+            throw new IOException(
+                    "Command too large for the journal: " + payload.length + " bytes"
+            );
+        }
+
+        if (segment.remaining() < HEADER_SIZE + payload.length) {
+            try {
+                roll();
+            } catch (IOException e) {
+                codec.rollback(mark);
+                throw e;
+            }
+        }
+
+        segment.putInt(payload.length);
+        segment.putInt(checksum(payload));
+        segment.put(payload);
+
+        // Group commit
+        if (++unsynced >= batchSize) {
+            sync();
+        }
+    }
+
+    /**
+     * Forces every appended record to disk
+     */
+    public void sync() {
+        if (unsynced == 0) {
+            return;
+        }
+
+        segment.force();
+        unsynced = 0;
+    }
+
+    /**
+     * Forces the pending records to disk and releases the segment file
+     *
+     * @throws IOException if the segment file can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        sync();
+        channel.close();
+    }
+
+    /**
+     * Closes the journal and deletes its segment files,
+     * used once the journaled state no longer needs to be recovered
+     *
+     * @throws IOException if the segment files can't be deleted
+     */
+    public void discard() throws IOException {
+        close();
+        for (int i = 0; Files.exists(segmentPath(i)); i++) {
+            Files.delete(segmentPath(i));
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    private void recover() throws IOException {
+        mapSegment(0);
+
+        // A rolled segment ends with zeroes, continue with the next one
+        boolean corrupted = readRecords();
+        while (!corrupted && Files.exists(segmentPath(segmentIndex + 1))) {
+            channel.close();
+            mapSegment(segmentIndex + 1);
+            corrupted = readRecords();
+        }
+
+        if (!corrupted) {
+            return;
+        }
+
+        // Wipe the torn tail so it can't be mistaken for records later
+        int position = segment.position();
+        while (segment.hasRemaining()) {
+            segment.put((byte) 0);
+        }
+        segment.position(position);
+        segment.force();
+
+        for (int i = segmentIndex + 1; Files.exists(segmentPath(i)); i++) {
+            Files.delete(segmentPath(i));
+        }
+    }
+
+    /**
+     * Reads the records of the mapped segment,
+     * leaving the segment positioned after the last valid one
+     *
+     * @return whether the segment ended with a corrupted record
+     */
+    private boolean readRecords() {
+        while (segment.remaining() >= HEADER_SIZE) {
+            int start = segment.position();
+            int length = segment.getInt();
+            int expectedChecksum = segment.getInt();
+
+            // End of the written records
+            if (length == 0 && expectedChecksum == 0) {
+                segment.position(start);
+                return false;
+            }
+
+            if (length < 0 || length > segment.remaining()) {
+                segment.position(start);
+                return true;
+            }
+
+            byte[] payload = new byte[length];
+            segment.get(payload);
+            if (checksum(payload) != expectedChecksum) {
+                segment.position(start);
+                return true;
+            }
+
+            // A record that passed the checksum but can't be decoded is corrupted as well
+            int mark = codec.mark();
+            try {
+                recovered.add(codec.decode(payload));
+            } catch (IOException e) {
+                codec.rollback(mark);
+                segment.position(start);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void roll() throws IOException {
+        sync();
+        channel.close();
+        mapSegment(segmentIndex + 1);
+    }
+
+    private void mapSegment(final int index) throws IOException {
+        segmentIndex = index;
+        channel = FileChannel.open(
+                segmentPath(index),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+        );
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+    }
+
+    private Path segmentPath(final int index) {
+        return directory.resolve(String.format(SEGMENT_FORMAT, index));
+    }
+
+    private static int checksum(final byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * @return the commands read from the journal when it was opened
+     */
+    public List<JsonNode> getRecoveredCommands() {
+        return Collections.unmodifiableList(recovered);
+    }
+
+}
@@ -0,0 +1,263 @@
+package org.poo.system.journal;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.BufferUnderflowException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes the commands' JSON trees in a compact binary form
+ * </br>
+ * Every node is a tag byte followed by its value, integers and lengths are varints.
+ * Strings (field names and values alike) are written in full the first time
+ * they appear in the journal and referenced by their index afterwards,
+ * so the emails, IBANs and field names repeated by every command cost a byte or two.
+ * The table is rebuilt while the journal is recovered, in record order
+ */
+final class JournalCodec {
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_FALSE = 1;
+    private static final int TAG_TRUE = 2;
+    private static final int TAG_INT = 3;
+    private static final int TAG_LONG = 4;
+    private static final int TAG_DOUBLE = 5;
+    private static final int TAG_BIG_INTEGER = 6;
+    private static final int TAG_DECIMAL = 7;
+    private static final int TAG_STRING = 8;
+    private static final int TAG_ARRAY = 9;
+    private static final int TAG_OBJECT = 10;
+
+    // Varints hold 7 bits per byte, the high bit marks a following byte
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MASK = 0x7F;
+    private static final int VARINT_MORE = 0x80;
+
+    // Reference written before a string that isn't in the table yet
+    private static final int NEW_STRING = 0;
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    /**
+     * Encodes a node, adding its new strings to the table
+     * </br>
+     * If the record isn't written, its strings are dropped with {@code rollback}
+     *
+     * @param node the node to encode
+     * @return the encoded node
+     */
+    byte[] encode(final JsonNode node) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writeNode(output, node);
+        return output.toByteArray();
+    }
+
+    /**
+     * Decodes a node written by {@code encode}, adding its new strings to the table
+     *
+     * @param payload the encoded node
+     * @return the decoded node
+     * @throws IOException if the payload is not a valid encoding
+     */
+    JsonNode decode(final byte[] payload) throws IOException {
+        ByteBuffer input = ByteBuffer.wrap(payload);
+        try {
+            JsonNode node = readNode(input);
+            if (input.hasRemaining()) {
+                throw new IOException("Trailing bytes after the encoded command");
+            }
+
+            return node;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated encoded command", e);
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed encoded number", e);
+        }
+    }
+
+    /**
+     * @return the number of strings in the table, used to roll back a failed record
+     */
+    int mark() {
+        return strings.size();
+    }
+
+    /**
+     * Drops the strings added since the given mark, used when a record isn't written
+     *
+     * @param mark the table size returned by {@code mark}
+     */
+    void rollback(final int mark) {
+        while (strings.size() > mark) {
+            indexes.remove(strings.removeLast());
+        }
+    }
+
+    private void writeNode(final ByteArrayOutputStream output, final JsonNode node) {
+        switch (node.getNodeType()) {
+            case BOOLEAN -> output.write(node.booleanValue() ? TAG_TRUE : TAG_FALSE);
+            case NUMBER -> writeNumber(output, node);
+            case STRING -> {
+                output.write(TAG_STRING);
+                writeString(output, node.textValue());
+            }
+            case ARRAY -> {
+                output.write(TAG_ARRAY);
+                writeVarLong(output, node.size());
+                for (JsonNode element : node) {
+                    writeNode(output, element);
+                }
+            }
+            case OBJECT -> {
+                output.write(TAG_OBJECT);
+                writeVarLong(output, node.size());
+                for (Map.Entry<String, JsonNode> field : node.properties()) {
+                    writeString(output, field.getKey());
+                    writeNode(output, field.getValue());
+                }
+            }
+            default -> output.write(TAG_NULL);
+        }
+    }
+
+    private void writeNumber(final ByteArrayOutputStream output, final JsonNode node) {
+        if (node.isInt()) {
+            output.write(TAG_INT);
+            writeVarLong(output, zigZag(node.intValue()));
+        } else if (node.isLong()) {
+            output.write(TAG_LONG);
+            writeVarLong(output, zigZag(node.longValue()));
+        } else if (node.isDouble() || node.isFloat()) {
+            output.write(TAG_DOUBLE);
+            long bits = Double.doubleToRawLongBits(node.doubleValue());
+            for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+                output.write((int) (bits >>> shift));
+            }
+        } else if (node.isBigInteger()) {
+            output.write(TAG_BIG_INTEGER);
+            writeString(output, node.bigIntegerValue().toString());
+        } else {
+            output.write(TAG_DECIMAL);
+            writeString(output, node.decimalValue().toString());
+        }
+    }
+
+    private void writeString(final ByteArrayOutputStream output, final String value) {
+        Integer index = indexes.get(value);
+        if (index != null) {
+            writeVarLong(output, index + 1L);
+            return;
+        }
+
+        writeVarLong(output, NEW_STRING);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(output, bytes.length);
+        output.write(bytes, 0, bytes.length);
+
+        indexes.put(value, strings.size());
+        strings.add(value);
+    }
+
+    private JsonNode readNode(final ByteBuffer input) throws IOException {
+        int tag = input.get();
+        return switch (tag) {
+            case TAG_NULL -> NODES.nullNode();
+            case TAG_FALSE -> NODES.booleanNode(false);
+            case TAG_TRUE -> NODES.booleanNode(true);
+            case TAG_INT -> NODES.numberNode((int) unZigZag(readVarLong(input)));
+            case TAG_LONG -> NODES.numberNode(unZigZag(readVarLong(input)));
+            case TAG_DOUBLE -> NODES.numberNode(Double.longBitsToDouble(input.getLong()));
+            case TAG_BIG_INTEGER -> NODES.numberNode(new BigInteger(readString(input)));
+            case TAG_DECIMAL -> NODES.numberNode(new BigDecimal(readString(input)));
+            case TAG_STRING -> NODES.textNode(readString(input));
+            case TAG_ARRAY -> {
+                ArrayNode array = NODES.arrayNode();
+                long size = readVarLong(input);
+                for (long i = 0; i < size; i++) {
+                    array.add(readNode(input));
+                }
+                yield array;
+            }
+            case TAG_OBJECT -> {
+                ObjectNode object = NODES.objectNode();
+                long size = readVarLong(input);
+                for (long i = 0; i < size; i++) {
+                    String name = readString(input);
+                    object.set(name, readNode(input));
+                }
+                yield object;
+            }
+            default -> throw new IOException("Unknown node tag: " + tag);
+        };
+    }
+
+    private String readString(final ByteBuffer input) throws IOException {
+        long reference = readVarLong(input);
+        if (reference != NEW_STRING) {
+            if (reference > strings.size()) {
+                throw new IOException("Unknown string reference: " + reference);
+            }
+
+            return strings.get((int) reference - 1);
+        }
+
+        long length = readVarLong(input);
+        if (length > input.remaining()) {
+            throw new IOException("String longer than the encoded command");
+        }
+
+        byte[] bytes = new byte[(int) length];
+        input.get(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+
+        indexes.put(value, strings.size());
+        strings.add(value);
+        return value;
+    }
+
+    private static void writeVarLong(final ByteArrayOutputStream output, final long value) {
+        long remaining = value;
+        while ((remaining & ~VARINT_MASK) != 0) {
+            output.write((int) ((remaining & VARINT_MASK) | VARINT_MORE));
+            remaining >>>= VARINT_BITS;
+        }
+        output.write((int) remaining);
+    }
+
+    private static long readVarLong(final ByteBuffer input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += VARINT_BITS) {
+            int current = input.get();
+            value |= (long) (current & VARINT_MASK) << shift;
+            if ((current & VARINT_MORE) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed varint");
+    }
+
+    private static long zigZag(final long value) {
+        return (value << 1) ^ (value >> (Long.SIZE - 1));
+    }
+
+    private static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
@@ -55,6 +55,12 @@ public interface PendingPayment {
      */
     void reject(PaymentObserver observer);
 
+    /**
+     * Rejects the payment on behalf of everyone,
+     * after it was left unaddressed for too long
+     */
+    void expire();
+
     /**
      * Checks whether the payment was dealt with by the given observer
      *
@@ -1,26 +1,55 @@
 package org.poo.system.payments;
 
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 import org.poo.system.BankingSystem;
 import org.poo.system.Transaction;
 import org.poo.system.exchange.Amount;
 import org.poo.system.user.Account;
 import org.poo.utils.Pair;
+import org.poo.utils.TimerWheel;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 @Getter
 public class SplitPayment implements PendingPayment {
 
+    /**
+     * An observer involved in the payment, along with the accounts it owns
+     */
+    private static final class Participant {
+        private final PaymentObserver observer;
+        private final List<Pair<Account, Amount>> accounts = new ArrayList<>();
+        private boolean accepted = false;
+
+        private Participant(final PaymentObserver observer) {
+            this.observer = observer;
+        }
+    }
+
+    private static final String REJECTED_ERROR = "One user rejected the payment.";
+
     private final PendingPayment.Type type;
     private final Amount totalAmount;
     private final int timestamp;
     private final List<Pair<Account, Amount>> involvedAccounts = new ArrayList<>();
-    private final Set<PaymentObserver> observers = new HashSet<>();
-    private final List<PaymentObserver> accepted = new ArrayList<>();
+
+    // Involved accounts grouped by their owner (in the order they were added)
+    @Getter(AccessLevel.NONE)
+    private final List<Participant> participants = new ArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private final Map<PaymentObserver, Participant> participantsByObserver =
+            new IdentityHashMap<>();
+    @Getter(AccessLevel.NONE)
+    private int acceptedCount = 0;
+
+    // The timer which auto-rejects the payment (null if it never expires)
+    @Setter
+    private TimerWheel.Timer<PendingPayment> expiry;
 
     public SplitPayment(
             final PendingPayment.Type type,
@@ -32,6 +61,26 @@ public class SplitPayment implements PendingPayment {
         this.timestamp = timestamp;
     }
 
+    /**
+     * Adds an account to the payment, grouping it under its owner
+     *
+     * @param account the account involved in the payment
+     * @param amount the amount the account has to pay
+     */
+    public void addInvolvedAccount(final Account account, final Amount amount) {
+        Pair<Account, Amount> entry = new Pair<>(account, amount);
+        involvedAccounts.add(entry);
+
+        Participant participant = participantsByObserver.get(account.getOwner());
+        if (participant == null) {
+            participant = new Participant(account.getOwner());
+            participantsByObserver.put(account.getOwner(), participant);
+            participants.add(participant);
+        }
+
+        participant.accounts.add(entry);
+    }
+
     private Transaction.SplitPayment generateTransaction() {
         Transaction.SplitPayment splitTransaction = new Transaction.SplitPayment(
                 "Split payment of "
@@ -87,15 +136,13 @@ public class SplitPayment implements PendingPayment {
     }
 
     private void notifyAll(final Transaction.SplitPayment splitTransaction) {
-        for (PaymentObserver observer : observers) {
-            for (var involvedEntry : involvedAccounts) {
-
-                // Check if the user owns the account
-                // If not, continue
-                if (!observer.owns(involvedEntry.first())) {
-                    continue;
-                }
+        // The payment is settled, it can't expire anymore
+        if (expiry != null) {
+            expiry.cancel();
+        }
 
+        for (Participant participant : participants) {
+            for (var involvedEntry : participant.accounts) {
                 Amount amount = involvedEntry.second();
 
                 // If the payment was rejected (or someone didn't have enough funds)
@@ -114,7 +161,7 @@ public class SplitPayment implements PendingPayment {
 
                 // Notify the observer
                 // (to deduct the amount or to just remove the payment)
-                observer.notify(order);
+                participant.observer.notify(order);
             }
         }
     }
@@ -127,15 +174,25 @@ public class SplitPayment implements PendingPayment {
     @Override
     public void accept(final PaymentObserver observer) {
         BankingSystem.log(
-                observer
+                () -> observer
                         + " accepted split from timestamp "
                         + timestamp
         );
-        // Mark the entry as accepted
-        accepted.add(observer);
+        // Mark the entry as accepted (ignore observers outside the payment)
+        Participant participant = participantsByObserver.get(observer);
+        if (participant == null || participant.accepted) {
+            return;
+        }
+
+        // Every involved user's copy of the payment changes
+        for (Pair<Account, Amount> entry : involvedAccounts) {
+            BankingSystem.beforeUpdate(entry.first().getOwner());
+        }
+        participant.accepted = true;
+        acceptedCount++;
 
         // Check if everyone accepted the payment
-        if (observers.size() == accepted.size()) {
+        if (acceptedCount == participants.size()) {
             complete();
         }
     }
@@ -148,16 +205,28 @@ public class SplitPayment implements PendingPayment {
     @Override
     public void reject(final PaymentObserver observer) {
         BankingSystem.log(
-                observer + " rejected split from timestamp " + timestamp
+                () -> observer + " rejected split from timestamp " + timestamp
         );
         // Add the rejected error message
         Transaction.SplitPayment splitTransaction =
-                generateTransaction().setError("One user rejected the payment.");
+                generateTransaction().setError(REJECTED_ERROR);
 
         // Notify everyone of the failure
         notifyAll(splitTransaction);
     }
 
+    /**
+     * Rejects the payment on behalf of everyone,
+     * after it was left unaddressed for too long
+     */
+    @Override
+    public void expire() {
+        BankingSystem.log(() -> "Split from timestamp " + timestamp + " expired");
+
+        // Same outcome as if one of the users rejected it
+        notifyAll(generateTransaction().setError(REJECTED_ERROR));
+    }
+
     /**
      * Checks whether the payment was dealt with by the given observer
      *
@@ -166,6 +235,7 @@ public class SplitPayment implements PendingPayment {
      */
     @Override
     public boolean wasDealt(final PaymentObserver observer) {
-        return accepted.contains(observer);
+        Participant participant = participantsByObserver.get(observer);
+        return participant != null && participant.accepted;
     }
 }
@@ -0,0 +1,81 @@
+package org.poo.system.provider;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.poo.system.exchange.Exchange;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The size of an input, used to pick the providers suited for it
+ *
+ * @param users the number of users
+ * @param commerciants the number of commerciants
+ * @param currencies the number of currencies appearing in the exchange rates
+ * @param directPairs the number of currency pairs with a direct exchange rate
+ * @param commands the number of commands
+ */
+public record InputProfile(
+        int users,
+        int commerciants,
+        int currencies,
+        int directPairs,
+        int commands
+) {
+
+    /**
+     * Reads the profile of an input
+     *
+     * @param root the root of the input
+     * @param exchanges the exchange rates of the input
+     * @return the profile of the input
+     */
+    public static InputProfile of(final JsonNode root, final List<Exchange> exchanges) {
+        Set<String> currencies = new HashSet<>();
+        Set<String> pairs = new HashSet<>();
+        for (Exchange exchange : exchanges) {
+            currencies.add(exchange.from());
+            currencies.add(exchange.to());
+
+            // Rates work both ways, the pair is stored in a fixed order
+            pairs.add(exchange.from().compareTo(exchange.to()) < 0
+                    ? exchange.from() + "/" + exchange.to()
+                    : exchange.to() + "/" + exchange.from());
+        }
+
+        return new InputProfile(
+                root.path("users").size(),
+                root.path("commerciants").size(),
+                currencies.size(),
+                pairs.size(),
+                root.path("commands").size()
+        );
+    }
+
+    /**
+     * @return whether every pair of currencies has a direct exchange rate
+     */
+    public boolean fullyConnected() {
+        return directPairs >= currencies * (currencies - 1) / 2;
+    }
+
+    /**
+     * Estimates the number of stored entities, every command
+     * creates at most one account or card
+     *
+     * @return the upper bound of the entities stored while running the input
+     */
+    public long estimatedEntities() {
+        return (long) users + commerciants + commands;
+    }
+
+    @Override
+    public String toString() {
+        return users + " users, "
+                + commerciants + " commerciants, "
+                + currencies + " currencies, "
+                + commands + " commands";
+    }
+
+}
@@ -0,0 +1,40 @@
+package org.poo.system.provider;
+
+/**
+ * Creates the instances of a provider implementation
+ * </br>
+ * Implementations are discovered through {@code ServiceLoader},
+ * each provider interface has its own factory interface
+ *
+ * @param <T> the provider interface
+ */
+public interface ProviderFactory<T> {
+
+    /**
+     * How well a provider suits an input
+     *
+     * @param score the score of the provider, the highest one is picked.
+     *              Negative scores mark providers that can't run the input
+     * @param reason why the provider got the score
+     */
+    record Rating(int score, String reason) { }
+
+    /**
+     * @return the name used to select the provider in the configuration
+     */
+    String getName();
+
+    /**
+     * @return a new, empty provider
+     */
+    T create();
+
+    /**
+     * Rates the provider for an input, used when the provider is selected automatically
+     *
+     * @param profile the profile of the input
+     * @return the rating of the provider
+     */
+    Rating rate(InputProfile profile);
+
+}
@@ -0,0 +1,102 @@
+package org.poo.system.provider;
+
+import org.poo.system.BankingSystem;
+import org.poo.system.exceptions.InputException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Picks the provider implementations, either by name or automatically
+ */
+public final class ProviderSelector {
+
+    // Name selecting the provider best suited for the input
+    public static final String AUTO = "auto";
+
+    // The factories are loaded once per factory interface
+    private static final Map<Class<?>, List<?>> FACTORIES = new HashMap<>();
+
+    private ProviderSelector() {
+    }
+
+    /**
+     * Selects the factory of a provider
+     *
+     * @param service the factory interface of the provider
+     * @param configured the name of the selected factory or {@code AUTO}
+     * @param profile the profile of the input
+     * @param <F> the factory interface of the provider
+     * @return the selected factory
+     * @throws InputException if no factory has the configured name
+     * or if no factory can run the input
+     */
+    public static <F extends ProviderFactory<?>> F select(
+            final Class<F> service,
+            final String configured,
+            final InputProfile profile
+    ) throws InputException {
+        List<F> factories = load(service);
+
+        if (!configured.equals(AUTO)) {
+            for (F factory : factories) {
+                if (factory.getName().equals(configured)) {
+                    BankingSystem.log(
+                            () -> service.getSimpleName() + ": " + configured + " [configured]"
+                    );
+                    return factory;
+                }
+            }
+
+            throw new InputException(
+                    "Unknown " + service.getSimpleName() + ": " + configured
+            );
+        }
+
+        // Pick the highest rating, the first factory wins on ties
+        F best = null;
+        ProviderFactory.Rating bestRating = null;
+        for (F factory : factories) {
+            ProviderFactory.Rating rating = factory.rate(profile);
+            boolean better = bestRating == null || rating.score() > bestRating.score();
+            if (rating.score() >= 0 && better) {
+                best = factory;
+                bestRating = rating;
+            }
+        }
+
+        if (best == null) {
+            throw new InputException("No " + service.getSimpleName() + " can run the input");
+        }
+
+        F selected = best;
+        ProviderFactory.Rating reason = bestRating;
+        BankingSystem.log(
+                () -> service.getSimpleName()
+                        + ": "
+                        + selected.getName()
+                        + " [auto: "
+                        + reason.reason()
+                        + "] ("
+                        + profile
+                        + ")"
+        );
+
+        return selected;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <F> List<F> load(final Class<F> service) {
+        return (List<F>) FACTORIES.computeIfAbsent(
+                service,
+                key -> ServiceLoader
+                        .load(service)
+                        .stream()
+                        .map(ServiceLoader.Provider::get)
+                        .toList()
+        );
+    }
+
+}
@@ -0,0 +1,616 @@
+package org.poo.system.snapshot;
+
+import lombok.Getter;
+import org.poo.system.BankingSystem;
+import org.poo.system.commerce.Commerciant;
+import org.poo.system.commerce.CommerciantSpending;
+import org.poo.system.exchange.Amount;
+import org.poo.system.history.TransactionStore;
+import org.poo.system.payments.PaymentObserver;
+import org.poo.system.payments.PendingPayment;
+import org.poo.system.payments.SplitPayment;
+import org.poo.system.storage.StorageProvider;
+import org.poo.system.user.Account;
+import org.poo.system.user.BusinessAccount;
+import org.poo.system.user.Card;
+import org.poo.system.user.User;
+import org.poo.system.user.plan.ServicePlan;
+import org.poo.utils.Pair;
+import org.poo.utils.Utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A point-in-time binary copy of the ledger
+ * </br>
+ * Holds the users, their accounts, cards, aliases, balances, plans, coupons and transaction
+ * histories, the business associates' data, the commerciants' counters and the pending
+ * split payments. Everything that changes along with a user is encoded in one block,
+ * so a {@code SnapshotCapture} can copy the users one at a time
+ */
+public final class LedgerSnapshot {
+
+    private static final int MAGIC = 0x4C444752;
+    private static final int VERSION = 5;
+
+    // Coupon states, two bits for every commerciant type
+    private static final int COUPON_BITS = 2;
+    private static final int COUPON_MASK = 0b11;
+    private static final int COUPON_USED = 0;
+    private static final int COUPON_UNCLAIMED = 1;
+    private static final int COUPON_CLAIMED = 2;
+
+    /**
+     * A pending split payment read from a user's block,
+     * every involved user's block holds a copy
+     */
+    private record PaymentCopy(
+            PendingPayment.Type type,
+            Amount totalAmount,
+            int timestamp,
+            List<Pair<String, Amount>> accounts,
+            List<String> accepted
+    ) {
+        /**
+         * @return a key shared by the copies of the same payment
+         */
+        private String key() {
+            StringBuilder key = new StringBuilder().append(timestamp);
+            for (Pair<String, Amount> entry : accounts) {
+                key.append(' ').append(entry.first());
+            }
+
+            return key.toString();
+        }
+    }
+
+    // Number of commands run before the snapshot was captured
+    @Getter
+    private final int commandCount;
+    // Timestamp of the last command run before the snapshot was captured
+    @Getter
+    private final int timestamp;
+    private final byte[] data;
+
+    LedgerSnapshot(final int commandCount, final int timestamp, final byte[] data) {
+        this.commandCount = commandCount;
+        this.timestamp = timestamp;
+        this.data = data;
+    }
+
+    /**
+     * @return the encoded snapshot
+     */
+    public byte[] toBytes() {
+        return data.clone();
+    }
+
+    /**
+     * @return the size of the encoded snapshot in bytes
+     */
+    public int size() {
+        return data.length;
+    }
+
+    /**
+     * Decodes the header of an encoded snapshot
+     *
+     * @param bytes the encoded snapshot
+     * @return the snapshot, ready to be restored
+     * @throws IOException if the bytes are not a snapshot
+     */
+    public static LedgerSnapshot fromBytes(final byte[] bytes) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+            throw new IOException("Not a ledger snapshot");
+        }
+
+        return new LedgerSnapshot(input.readInt(), input.readInt(), bytes);
+    }
+
+    /**
+     * Restores the snapshot into an empty storage which only has the commerciants registered
+     * and an empty transaction store
+     *
+     * @param storage the storage to fill
+     * @param store the store receiving the accounts' transaction records
+     * @throws IOException if the snapshot is corrupted
+     */
+    public void restoreInto(
+            final StorageProvider storage,
+            final TransactionStore store
+    ) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+
+        // The header was already read
+        input.readInt();
+        input.readInt();
+        input.readInt();
+        input.readInt();
+
+        byte[] randomState = new byte[input.readInt()];
+        input.readFully(randomState);
+        Utils.restoreRandom(randomState);
+
+        // Records are copied as they are, so their strings keep the same ids
+        store.readStrings(input);
+
+        Map<String, User> users = new HashMap<>();
+        List<User> userList = new ArrayList<>();
+        int userCount = input.readInt();
+        for (int i = 0; i < userCount; i++) {
+            User user = readIdentity(input);
+            storage.registerUser(user);
+            users.put(user.getEmail(), user);
+            userList.add(user);
+        }
+
+        Map<String, Account> accounts = new HashMap<>();
+        List<List<String>> accountOrders = new ArrayList<>();
+        Map<String, PaymentCopy> payments = new LinkedHashMap<>();
+        for (User user : userList) {
+            accountOrders.add(readState(input, user, storage, users, accounts, payments));
+        }
+
+        // Put every user's accounts back in their original order,
+        // the lists can mention accounts owned by users read later
+        for (int i = 0; i < userList.size(); i++) {
+            List<Account> userAccounts = userList.get(i).getAccounts();
+            userAccounts.clear();
+            for (String iban : accountOrders.get(i)) {
+                Account account = accounts.get(iban);
+                if (account != null) {
+                    userAccounts.add(account);
+                }
+            }
+        }
+
+        List<PaymentCopy> ordered = new ArrayList<>(payments.values());
+        ordered.sort(Comparator.comparingInt(PaymentCopy::timestamp));
+        for (PaymentCopy payment : ordered) {
+            restorePayment(payment, users, accounts);
+        }
+    }
+
+    static void writeHeader(
+            final DataOutputStream output,
+            final int commandCount,
+            final int timestamp,
+            final byte[] randomState
+    ) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(commandCount);
+        output.writeInt(timestamp);
+
+        output.writeInt(randomState.length);
+        output.write(randomState);
+    }
+
+    /**
+     * Writes the fields of a user which never change
+     */
+    static void writeIdentity(
+            final DataOutputStream output,
+            final User user
+    ) throws IOException {
+        output.writeUTF(user.getFirstName());
+        output.writeUTF(user.getLastName());
+        output.writeUTF(user.getEmail());
+        output.writeUTF(user.getOccupation());
+        output.writeLong(user.getBirthDate().toEpochDay());
+    }
+
+    private static User readIdentity(final DataInputStream input) throws IOException {
+        return new User(
+                input.readUTF(),
+                input.readUTF(),
+                input.readUTF(),
+                input.readUTF(),
+                LocalDate.ofEpochDay(input.readLong())
+        );
+    }
+
+    /**
+     * Writes everything that changes along with a user: the plan, the accounts it owns
+     * (with their histories and the commerciants' counters), the order of the accounts
+     * it can access and its pending split payments
+     */
+    static void writeState(
+            final DataOutputStream output,
+            final User user,
+            final List<Commerciant> commerciants
+    ) throws IOException {
+        output.writeByte(user.getPlanTier().ordinal());
+        output.writeInt(user.getUpgradeProgress());
+
+        List<Account> owned = user
+                .getAccounts()
+                .stream()
+                .filter(account -> account.getOwner() == user)
+                .toList();
+        output.writeInt(owned.size());
+        for (Account account : owned) {
+            writeAccount(output, account, commerciants);
+        }
+
+        // Accounts in the order the user sees them (associates included)
+        output.writeInt(user.getAccounts().size());
+        for (Account account : user.getAccounts()) {
+            output.writeUTF(account.getAccountIBAN());
+        }
+
+        List<SplitPayment> payments = new ArrayList<>();
+        for (Pair<PendingPayment, Integer> entry : user.getPendingPayments()) {
+            if (entry.first() instanceof SplitPayment payment && !isSettled(payment)) {
+                payments.add(payment);
+            }
+        }
+        output.writeInt(payments.size());
+        for (SplitPayment payment : payments) {
+            writePayment(output, payment);
+        }
+    }
+
+    /**
+     * @return the user's account order, resolved once every account was read
+     */
+    private static List<String> readState(
+            final DataInputStream input,
+            final User user,
+            final StorageProvider storage,
+            final Map<String, User> users,
+            final Map<String, Account> accounts,
+            final Map<String, PaymentCopy> payments
+    ) throws IOException {
+        user.changePlan(ServicePlan.Tier.values()[input.readByte()]);
+        user.setUpgradeProgress(input.readInt());
+
+        int accountCount = input.readInt();
+        for (int i = 0; i < accountCount; i++) {
+            Account account = readAccount(input, storage, users, user);
+            accounts.put(account.getAccountIBAN(), account);
+        }
+
+        int orderCount = input.readInt();
+        List<String> order = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            order.add(input.readUTF());
+        }
+
+        int paymentCount = input.readInt();
+        for (int i = 0; i < paymentCount; i++) {
+            PaymentCopy payment = readPayment(input);
+            payments.putIfAbsent(payment.key(), payment);
+        }
+
+        return order;
+    }
+
+    private static void writeAccount(
+            final DataOutputStream output,
+            final Account account,
+            final List<Commerciant> commerciants
+    ) throws IOException {
+        output.writeUTF(account.getAccountIBAN());
+        output.writeUTF(account.getCurrency());
+        output.writeByte(account.getAccountType().ordinal());
+        output.writeLong(account.getBalance());
+        output.writeLong(account.getMinBalanceUnits());
+        output.writeUTF(account.getAlias());
+        output.writeDouble(account.getInterest());
+
+        int coupons = 0;
+        for (Commerciant.Type type : Commerciant.Type.values()) {
+            Boolean claimed = account.getCoupons().get(type);
+            int state = claimed == null
+                    ? COUPON_USED
+                    : claimed ? COUPON_CLAIMED : COUPON_UNCLAIMED;
+            coupons |= state << (type.ordinal() * COUPON_BITS);
+        }
+        output.writeInt(coupons);
+
+        output.writeInt(account.getCards().size());
+        for (Card card : account.getCards()) {
+            output.writeUTF(card.getCardNumber());
+            output.writeUTF(card.getCreator().getEmail());
+            output.writeByte(card.getCardType().ordinal());
+            output.writeBoolean(card.isActive());
+        }
+
+        if (account instanceof BusinessAccount business) {
+            writeBusinessData(output, business);
+        }
+
+        writeCounters(output, account, commerciants);
+        account.getTransactions().writeTo(output);
+    }
+
+    private static Account readAccount(
+            final DataInputStream input,
+            final StorageProvider storage,
+            final Map<String, User> users,
+            final User owner
+    ) throws IOException {
+        String iban = input.readUTF();
+        // Registered the same way as when the account was created
+        String currency = BankingSystem.getExchangeProvider()
+                .registerCurrency(input.readUTF())
+                .getCode();
+        Account.Type type = Account.Type.values()[input.readByte()];
+
+        Account account = type == Account.Type.BUSINESS
+                ? new BusinessAccount(owner, iban, currency)
+                : new Account(owner, iban, currency, type);
+        account.restoreFunds(input.readLong(), input.readLong());
+        String alias = input.readUTF();
+        account.setInterest(input.readDouble());
+
+        int coupons = input.readInt();
+        for (Commerciant.Type couponType : Commerciant.Type.values()) {
+            int state = (coupons >> (couponType.ordinal() * COUPON_BITS)) & COUPON_MASK;
+            if (state == COUPON_USED) {
+                account.getCoupons().remove(couponType);
+            } else {
+                account.getCoupons().put(couponType, state == COUPON_CLAIMED);
+            }
+        }
+
+        storage.registerAccount(account);
+        if (!alias.isEmpty()) {
+            storage.registerAlias(account, alias);
+        }
+
+        int cardCount = input.readInt();
+        for (int i = 0; i < cardCount; i++) {
+            String cardNumber = input.readUTF();
+            User creator = users.get(input.readUTF());
+            Card card = new Card(
+                    account,
+                    creator,
+                    Card.Type.values()[input.readByte()],
+                    cardNumber
+            );
+            card.setActive(input.readBoolean());
+            storage.registerCard(card);
+        }
+
+        if (account instanceof BusinessAccount business) {
+            readBusinessData(input, business, users);
+        }
+
+        readCounters(input, account, storage);
+        account.getTransactions().readFrom(input);
+
+        return account;
+    }
+
+    private static void writeBusinessData(
+            final DataOutputStream output,
+            final BusinessAccount account
+    ) throws IOException {
+        output.writeDouble(account.getSpendingLimit().total());
+        output.writeDouble(account.getDepositLimit().total());
+
+        output.writeInt(account.getAssociateDataList().size());
+        for (BusinessAccount.AssociateData associate : account.getAssociateDataList()) {
+            output.writeUTF(associate.getAssociate().getEmail());
+            output.writeByte(associate.getRole().ordinal());
+            associate.getSpent().writeTo(output);
+            associate.getDeposited().writeTo(output);
+        }
+
+        output.writeInt(account.getCommerciantSpendingList().size());
+        for (CommerciantSpending spending : account.getCommerciantSpendingList()) {
+            output.writeUTF(spending.getName());
+            spending.getReceived().writeTo(output);
+            writeAssociatePayments(output, spending);
+        }
+    }
+
+    private static void readBusinessData(
+            final DataInputStream input,
+            final BusinessAccount account,
+            final Map<String, User> users
+    ) throws IOException {
+        account.setSpendingLimit(new Amount(input.readDouble(), account.getUnit()));
+        account.setDepositLimit(new Amount(input.readDouble(), account.getUnit()));
+
+        int associateCount = input.readInt();
+        for (int i = 0; i < associateCount; i++) {
+            User associate = users.get(input.readUTF());
+            account.addAssociate(
+                    associate,
+                    BusinessAccount.Role.values()[input.readByte()]
+            );
+
+            BusinessAccount.AssociateData data = account.getAssociateData(associate);
+            data.getSpent().readFrom(input);
+            data.getDeposited().readFrom(input);
+        }
+
+        int spendingCount = input.readInt();
+        for (int i = 0; i < spendingCount; i++) {
+            CommerciantSpending spending = account.getCommerciantSpending(input.readUTF());
+            spending.getReceived().readFrom(input);
+            readAssociatePayments(input, account, users, spending);
+        }
+    }
+
+    private static void writeAssociatePayments(
+            final DataOutputStream output,
+            final CommerciantSpending spending
+    ) throws IOException {
+        Map<BusinessAccount.AssociateData, Integer> payments = spending.getPayments();
+        output.writeInt(payments.size());
+        for (Map.Entry<BusinessAccount.AssociateData, Integer> entry : payments.entrySet()) {
+            output.writeUTF(entry.getKey().getAssociate().getEmail());
+            output.writeInt(entry.getValue());
+        }
+    }
+
+    private static void readAssociatePayments(
+            final DataInputStream input,
+            final BusinessAccount account,
+            final Map<String, User> users,
+            final CommerciantSpending spending
+    ) throws IOException {
+        int count = input.readInt();
+        for (int i = 0; i < count; i++) {
+            BusinessAccount.AssociateData data =
+                    account.getAssociateData(users.get(input.readUTF()));
+            spending.addPayments(data, input.readInt());
+        }
+    }
+
+    /**
+     * Writes the counters the commerciants keep for the account
+     */
+    private static void writeCounters(
+            final DataOutputStream output,
+            final Account account,
+            final List<Commerciant> commerciants
+    ) throws IOException {
+        List<Commerciant> counted = commerciants
+                .stream()
+                .filter(commerciant -> commerciant.getTransactions().containsKey(account))
+                .toList();
+        output.writeInt(counted.size());
+        for (Commerciant commerciant : counted) {
+            output.writeUTF(commerciant.getName());
+            output.writeInt(commerciant.getTransactions().get(account));
+        }
+
+        List<Commerciant> spent = commerciants
+                .stream()
+                .filter(commerciant -> commerciant.getSpendings().containsKey(account))
+                .toList();
+        output.writeInt(spent.size());
+        for (Commerciant commerciant : spent) {
+            output.writeUTF(commerciant.getName());
+            output.writeDouble(commerciant.getSpendings().get(account));
+        }
+    }
+
+    private static void readCounters(
+            final DataInputStream input,
+            final Account account,
+            final StorageProvider storage
+    ) throws IOException {
+        int transactionCount = input.readInt();
+        for (int i = 0; i < transactionCount; i++) {
+            Commerciant commerciant = storage.getCommerciantByName(input.readUTF());
+            commerciant.getTransactions().put(account, input.readInt());
+        }
+
+        int spendingCount = input.readInt();
+        for (int i = 0; i < spendingCount; i++) {
+            Commerciant commerciant = storage.getCommerciantByName(input.readUTF());
+            commerciant.getSpendings().put(account, input.readDouble());
+        }
+    }
+
+    /**
+     * A payment accepted by everyone was already completed,
+     * it's only left behind if the completion failed midway
+     *
+     * @return whether every involved user accepted the payment
+     */
+    private static boolean isSettled(final SplitPayment payment) {
+        return payment
+                .getInvolvedAccounts()
+                .stream()
+                .allMatch(entry -> payment.wasDealt(entry.first().getOwner()));
+    }
+
+    private static void writePayment(
+            final DataOutputStream output,
+            final SplitPayment payment
+    ) throws IOException {
+        output.writeByte(payment.getType().ordinal());
+        output.writeDouble(payment.getTotalAmount().total());
+        output.writeUTF(payment.getTotalAmount().currency());
+        output.writeInt(payment.getTimestamp());
+
+        Set<PaymentObserver> accepted = new LinkedHashSet<>();
+        output.writeInt(payment.getInvolvedAccounts().size());
+        for (Pair<Account, Amount> entry : payment.getInvolvedAccounts()) {
+            output.writeUTF(entry.first().getAccountIBAN());
+            output.writeDouble(entry.second().total());
+            output.writeUTF(entry.second().currency());
+
+            if (payment.wasDealt(entry.first().getOwner())) {
+                accepted.add(entry.first().getOwner());
+            }
+        }
+
+        output.writeInt(accepted.size());
+        for (PaymentObserver observer : accepted) {
+            output.writeUTF(((User) observer).getEmail());
+        }
+    }
+
+    private static PaymentCopy readPayment(final DataInputStream input) throws IOException {
+        PendingPayment.Type type = PendingPayment.Type.values()[input.readByte()];
+        Amount totalAmount = new Amount(input.readDouble(), input.readUTF());
+        int paymentTimestamp = input.readInt();
+
+        int accountCount = input.readInt();
+        List<Pair<String, Amount>> involved = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            involved.add(new Pair<>(
+                    input.readUTF(),
+                    new Amount(input.readDouble(), input.readUTF())
+            ));
+        }
+
+        int acceptedCount = input.readInt();
+        List<String> accepted = new ArrayList<>(acceptedCount);
+        for (int i = 0; i < acceptedCount; i++) {
+            accepted.add(input.readUTF());
+        }
+
+        return new PaymentCopy(type, totalAmount, paymentTimestamp, involved, accepted);
+    }
+
+    private static void restorePayment(
+            final PaymentCopy copy,
+            final Map<String, User> users,
+            final Map<String, Account> accounts
+    ) {
+        SplitPayment payment = new SplitPayment(copy.type(), copy.totalAmount(), copy.timestamp());
+
+        // Register the accounts the same way the split command did
+        for (Pair<String, Amount> entry : copy.accounts()) {
+            Account account = accounts.get(entry.first());
+            payment.addInvolvedAccount(account, entry.second());
+            account.getOwner().register(payment);
+        }
+
+        for (String email : copy.accepted()) {
+            payment.accept(users.get(email));
+        }
+
+        if (BankingSystem.SPLIT_PAYMENT_EXPIRY > 0) {
+            payment.setExpiry(
+                    BankingSystem.getInstance().getPaymentExpiry().schedule(
+                            payment.getTimestamp() + BankingSystem.SPLIT_PAYMENT_EXPIRY,
+                            payment
+                    )
+            );
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+package org.poo.system.snapshot;
+
+import org.poo.system.BankingSystem;
+import org.poo.system.commerce.Commerciant;
+import org.poo.system.history.TransactionStore;
+import org.poo.system.storage.StorageProvider;
+import org.poo.system.user.User;
+import org.poo.utils.Utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A copy-on-write capture of the ledger, encoded on the snapshot thread
+ * while the executor keeps running commands
+ * </br>
+ * Starting a capture only copies the list of users. The snapshot thread then encodes
+ * the users one at a time, each along with its accounts, cards, histories and pending payments.
+ * Before the executor changes a user the snapshot thread didn't reach yet,
+ * {@code BankingSystem.beforeUpdate} calls {@code preserve}, which encodes the user first,
+ * so every user is encoded as it was when the capture started
+ */
+public final class SnapshotCapture {
+
+    private final int commandCount;
+    private final int timestamp;
+    private final byte[] randomState;
+    private final TransactionStore store;
+    // Strings used by the records written before the capture started
+    private final int stringCount;
+    private final User[] users;
+    private final List<Commerciant> commerciants;
+    // Users created after the capture started have greater ids, they aren't captured
+    private final long lastUserId;
+
+    // Ids of the users encoded so far, guarded by this
+    private final BitSet encoded = new BitSet();
+    // Users encoded by the executor, waiting to be written by the snapshot thread
+    private final Map<User, byte[]> preserved = new HashMap<>();
+    private volatile boolean finished = false;
+
+    private SnapshotCapture(
+            final StorageProvider storage,
+            final TransactionStore store,
+            final int commandCount
+    ) throws IOException {
+        this.commandCount = commandCount;
+        this.timestamp = BankingSystem.getTimestamp();
+        this.randomState = Utils.saveRandom();
+        this.store = store;
+        this.stringCount = store.stringCount();
+        this.users = storage.getUsers().toArray(new User[0]);
+        this.commerciants = List.copyOf(storage.getCommerciants());
+
+        long lastId = 0;
+        for (User user : users) {
+            lastId = Math.max(lastId, user.getId());
+        }
+        this.lastUserId = lastId;
+    }
+
+    /**
+     * Starts capturing the ledger, called by the executor between two commands
+     *
+     * @param storage the storage to capture
+     * @param store the store holding the accounts' transaction records
+     * @param commandCount the number of commands run so far
+     * @return the started capture, to be finished by the snapshot thread
+     * @throws IOException if the random state can't be saved
+     */
+    public static SnapshotCapture start(
+            final StorageProvider storage,
+            final TransactionStore store,
+            final int commandCount
+    ) throws IOException {
+        return new SnapshotCapture(storage, store, commandCount);
+    }
+
+    /**
+     * Encodes a user before the executor changes it,
+     * unless it was already encoded or it isn't part of the capture
+     *
+     * @param user the user about to change
+     */
+    public void preserve(final User user) {
+        if (finished || user.getId() > lastUserId) {
+            return;
+        }
+
+        synchronized (this) {
+            int index = (int) user.getId();
+            if (encoded.get(index)) {
+                return;
+            }
+
+            encoded.set(index);
+            preserved.put(user, encode(user));
+        }
+    }
+
+    /**
+     * Encodes the captured ledger, called on the snapshot thread
+     *
+     * @return the snapshot, as the ledger was when the capture started
+     * @throws IOException if the ledger can't be encoded
+     */
+    public LedgerSnapshot finish() throws IOException {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+
+            LedgerSnapshot.writeHeader(output, commandCount, timestamp, randomState);
+            store.writeStrings(output, stringCount);
+
+            // Users are created from the unchanging fields first,
+            // so their states can refer to each other
+            output.writeInt(users.length);
+            for (User user : users) {
+                LedgerSnapshot.writeIdentity(output, user);
+            }
+            for (User user : users) {
+                output.write(claim(user));
+            }
+
+            output.flush();
+            return new LedgerSnapshot(commandCount, timestamp, bytes.toByteArray());
+        } finally {
+            finished = true;
+            synchronized (this) {
+                preserved.clear();
+            }
+        }
+    }
+
+    /**
+     * @return whether the snapshot thread is done with the capture
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @param user the user to write
+     * @return the user's encoded state, encoded now if the executor didn't preserve it
+     */
+    private synchronized byte[] claim(final User user) {
+        byte[] state = preserved.remove(user);
+        if (state != null) {
+            return state;
+        }
+
+        encoded.set((int) user.getId());
+        return encode(user);
+    }
+
+    private byte[] encode(final User user) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            LedgerSnapshot.writeState(new DataOutputStream(bytes), user, commerciants);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+}
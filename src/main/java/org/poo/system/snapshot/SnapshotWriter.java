@@ -0,0 +1,153 @@
+package org.poo.system.snapshot;
+
+import org.poo.system.BankingSystem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes captured snapshots and writes them to disk on a background thread,
+ * so the commands don't wait for either
+ * </br>
+ * Every snapshot replaces the previous one atomically,
+ * a crash while writing leaves the previous snapshot intact
+ */
+public final class SnapshotWriter implements Closeable {
+
+    private static final String SNAPSHOT_FILE = "ledger.snapshot";
+    private static final String TEMPORARY_FILE = "ledger.snapshot.tmp";
+
+    private final Path directory;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // The last submitted write, checked for failures
+    private Future<?> lastWrite;
+
+    public SnapshotWriter(final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Reads the snapshot stored in the given directory
+     *
+     * @param directory the directory holding the snapshot
+     * @return the stored snapshot or null if there is none
+     * @throws IOException if the snapshot can't be read
+     */
+    public static LedgerSnapshot read(final Path directory) throws IOException {
+        Path file = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        return LedgerSnapshot.fromBytes(Files.readAllBytes(file));
+    }
+
+    /**
+     * Queues a capture to be encoded and written, replacing the stored snapshot
+     *
+     * @param capture the started capture
+     * @throws IOException if the previous write failed
+     */
+    public void submit(final SnapshotCapture capture) throws IOException {
+        checkLastWrite(false);
+        lastWrite = executor.submit(() -> {
+            long start = System.nanoTime();
+            LedgerSnapshot snapshot = capture.finish();
+            BankingSystem.log(
+                    () -> "Encoded snapshot of "
+                            + snapshot.size()
+                            + " bytes in "
+                            + TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)
+                            + "us"
+            );
+
+            write(snapshot);
+            return null;
+        });
+    }
+
+    /**
+     * Waits for the queued writes and stops the background thread
+     *
+     * @throws IOException if a write failed
+     */
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        checkLastWrite(true);
+    }
+
+    /**
+     * Waits for the queued writes and deletes the stored snapshot,
+     * used once the state no longer needs to be recovered
+     *
+     * @throws IOException if the snapshot can't be deleted
+     */
+    public void discard() throws IOException {
+        close();
+        delete(directory);
+    }
+
+    /**
+     * Deletes the snapshot stored in the given directory
+     *
+     * @param directory the directory holding the snapshot
+     * @throws IOException if the snapshot can't be deleted
+     */
+    public static void delete(final Path directory) throws IOException {
+        Files.deleteIfExists(directory.resolve(SNAPSHOT_FILE));
+        Files.deleteIfExists(directory.resolve(TEMPORARY_FILE));
+        Files.deleteIfExists(directory);
+    }
+
+    private void write(final LedgerSnapshot snapshot) throws IOException {
+        long start = System.nanoTime();
+
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(TEMPORARY_FILE);
+        Files.write(temporary, snapshot.toBytes());
+        Files.move(
+                temporary,
+                directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE
+        );
+
+        BankingSystem.log(
+                () -> "Wrote snapshot of "
+                        + snapshot.size()
+                        + " bytes in "
+                        + TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)
+                        + "us"
+        );
+    }
+
+    private void checkLastWrite(final boolean wait) throws IOException {
+        if (lastWrite == null || (!wait && !lastWrite.isDone())) {
+            return;
+        }
+
+        try {
+            lastWrite.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing a snapshot", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to write a snapshot", e.getCause());
+        }
+    }
+
+}
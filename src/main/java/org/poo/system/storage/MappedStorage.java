@@ -1,22 +1,29 @@
 package org.poo.system.storage;
 
+import org.poo.system.BankingSystem;
 import org.poo.system.exceptions.AliasException;
-import org.poo.system.exceptions.OwnershipException;
-import org.poo.system.exceptions.UserNotFoundException;
 import org.poo.system.user.Account;
 import org.poo.system.user.Card;
 import org.poo.system.commerce.Commerciant;
 import org.poo.system.user.User;
+import org.poo.system.provider.InputProfile;
+import org.poo.utils.CachedView;
+import org.poo.utils.LongHashMap;
 import org.poo.utils.Utils;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * A {@code StorageProvider} implementation that stores all users,
  * accounts, cards and aliases inside maps for faster access
+ * </br>
+ * IBANs and card numbers have a fixed numeric layout, so accounts and cards
+ * are keyed by their encoded form inside primitive maps.
+ * The strings are only kept by the accounts and cards themselves
  */
 public final class MappedStorage implements StorageProvider {
 
@@ -24,17 +31,24 @@ public final class MappedStorage implements StorageProvider {
     private final List<Commerciant> commerciants = new ArrayList<>();
 
     private final Map<String, User> users = new HashMap<>();
-    private final Map<String, Account> accounts = new HashMap<>();
-    private final Map<String, Card> cards = new HashMap<>();
+    // Accounts and cards are keyed by their encoded IBAN and card number
+    private final LongHashMap<Account> accounts = new LongHashMap<>();
+    private final LongHashMap<Card> cards = new LongHashMap<>();
 
     private final Map<String, Account> aliases = new HashMap<>();
 
     private final Map<String, Commerciant> commerciantsByIBAN = new HashMap<>();
     private final Map<String, Commerciant> commerciantsByName = new HashMap<>();
 
+    // Immutable copies returned to the readers, rebuilt after the next mutation
+    private final CachedView<User> userView = new CachedView<>(() -> userList);
+    private final CachedView<Commerciant> commerciantView = new CachedView<>(() -> commerciants);
+    private final CachedView<Account> accountView = new CachedView<>(accounts::values);
+    private final CachedView<Card> cardView = new CachedView<>(cards::values);
+
 
     private boolean isRegistered(final User user) {
-        return userList.contains(user);
+        return user.equals(users.get(user.getEmail()));
     }
 
     private boolean isRegistered(final Commerciant commerciant) {
@@ -42,11 +56,11 @@ public final class MappedStorage implements StorageProvider {
     }
 
     private boolean isRegistered(final Account account) {
-        return accounts.containsValue(account);
+        return account.equals(accounts.get(Utils.encodeIBAN(account.getAccountIBAN())));
     }
 
     private boolean isRegistered(final Card card) {
-        return cards.containsValue(card);
+        return card.equals(cards.get(Utils.encodeCardNumber(card.getCardNumber())));
     }
 
     /**
@@ -57,12 +71,13 @@ public final class MappedStorage implements StorageProvider {
      */
     @Override
     public void registerUser(final User user) throws StorageException {
-        if (isRegistered(user)) {
+        if (users.containsKey(user.getEmail())) {
             throw new StorageException("User " + user.getEmail() + " is already registered");
         }
 
         users.put(user.getEmail(), user);
         userList.add(user);
+        userView.invalidate();
     }
 
     /**
@@ -84,6 +99,7 @@ public final class MappedStorage implements StorageProvider {
         commerciantsByIBAN.put(commerciant.getAccountIBAN(), commerciant);
         commerciantsByName.put(commerciant.getName(), commerciant);
         commerciants.add(commerciant);
+        commerciantView.invalidate();
     }
 
     /**
@@ -91,12 +107,20 @@ public final class MappedStorage implements StorageProvider {
      *
      * @param account the {@code Account} to register
      * @throws StorageException <ul>
+     *                          <li>The account's IBAN can't be encoded</li>
      *                          <li>The account owner is not a registered user</li>
      *                          <li>The account is already registered to another user</li>
      *                          </ul>
      */
     @Override
     public void registerAccount(final Account account) throws StorageException {
+        long key = Utils.encodeIBAN(account.getAccountIBAN());
+        if (key < 0) {
+            throw new StorageException(
+                    "Account " + account.getAccountIBAN() + " has an unsupported IBAN format"
+            );
+        }
+
         if (!isRegistered(account.getOwner())) {
             throw new StorageException(
                     "Account "
@@ -115,8 +139,10 @@ public final class MappedStorage implements StorageProvider {
             );
         }
 
+        BankingSystem.beforeUpdate(account.getOwner());
         account.getOwner().getAccounts().add(account);
-        accounts.put(account.getAccountIBAN(), account);
+        accounts.put(key, account);
+        accountView.invalidate();
     }
 
     /**
@@ -124,6 +150,7 @@ public final class MappedStorage implements StorageProvider {
      *
      * @param card the {@code Card} to register
      * @throws StorageException <ul>
+     *                          <li>The card's number can't be encoded</li>
      *                          <li>The card's owner is not a registered user</li>
      *                          <li>The card's associated account is not registered</li>
      *                          <li>The card is already associated to another account</li>
@@ -131,6 +158,13 @@ public final class MappedStorage implements StorageProvider {
      */
     @Override
     public void registerCard(final Card card) throws StorageException {
+        long key = Utils.encodeCardNumber(card.getCardNumber());
+        if (key < 0) {
+            throw new StorageException(
+                    "Card " + card.getCardNumber() + " has an unsupported number format"
+            );
+        }
+
         if (!isRegistered(card.getAccount().getOwner())) {
             throw new StorageException(
                     "Card "
@@ -159,8 +193,10 @@ public final class MappedStorage implements StorageProvider {
             );
         }
 
+        BankingSystem.beforeUpdate(card.getAccount().getOwner());
         card.getAccount().getCards().add(card);
-        cards.put(card.getCardNumber(), card);
+        cards.put(key, card);
+        cardView.invalidate();
     }
 
     /**
@@ -237,9 +273,14 @@ public final class MappedStorage implements StorageProvider {
             );
         }
 
+        BankingSystem.beforeUpdate(account.getOwner());
         account.getOwner().getAccounts().remove(account);
-        account.getCards().forEach(card -> cards.remove(card.getCardNumber()));
-        accounts.remove(account.getAccountIBAN());
+        account.getCards().forEach(
+                card -> cards.remove(Utils.encodeCardNumber(card.getCardNumber()))
+        );
+        accounts.remove(Utils.encodeIBAN(account.getAccountIBAN()));
+        accountView.invalidate();
+        cardView.invalidate();
     }
 
     /**
@@ -282,72 +323,42 @@ public final class MappedStorage implements StorageProvider {
             );
         }
 
+        BankingSystem.beforeUpdate(card.getAccount().getOwner());
         card.getAccount().getCards().remove(card);
-        cards.remove(card.getCardNumber());
+        cards.remove(Utils.encodeCardNumber(card.getCardNumber()));
+        cardView.invalidate();
     }
 
     /**
-     * Finds an user
-     *
-     * @param email the email associated with the user
-     * @return the requested user
-     * @throws UserNotFoundException if the user doesn't exist
+     * {@inheritDoc}
      */
     @Override
-    public User getUserByEmail(final String email) throws UserNotFoundException {
-        if (!users.containsKey(email)) {
-            throw new UserNotFoundException("No user found using email: " + email);
-        }
-
-        return users.get(email);
+    public Optional<User> findUserByEmail(final String email) {
+        return Optional.ofNullable(users.get(email));
     }
 
     /**
-     * Finds an user
-     *
-     * @param iban the IBAN of the account owned by the user
-     * @return the requested user
-     * @throws UserNotFoundException if no user owns an account with the given IBAN
+     * {@inheritDoc}
      */
     @Override
-    public User getUserByIban(final String iban) throws UserNotFoundException {
-        if (!accounts.containsKey(iban)) {
-            throw new UserNotFoundException("No user found using IBAN: " + iban);
-        }
-
-        return accounts.get(iban).getOwner();
+    public Optional<User> findUserByIban(final String iban) {
+        return findAccountByIban(iban).map(Account::getOwner);
     }
 
     /**
-     * Finds a commerciant
-     *
-     * @param iban the IBAN of the commerciant
-     * @return the requested commerciant
-     * @throws UserNotFoundException if no commerciant exists with the given IBAN
+     * {@inheritDoc}
      */
     @Override
-    public Commerciant getCommerciantByIban(final String iban) throws UserNotFoundException {
-        if (!commerciantsByIBAN.containsKey(iban)) {
-            throw new UserNotFoundException("No commerciant found using IBAN: " + iban);
-        }
-
-        return commerciantsByIBAN.get(iban);
+    public Optional<Commerciant> findCommerciantByIban(final String iban) {
+        return Optional.ofNullable(commerciantsByIBAN.get(iban));
     }
 
     /**
-     * Finds a commerciant
-     *
-     * @param name the IBAN of the commerciant
-     * @return the requested commerciant
-     * @throws UserNotFoundException if no commerciant exists with the given name
+     * {@inheritDoc}
      */
     @Override
-    public Commerciant getCommerciantByName(final String name) throws UserNotFoundException {
-        if (!commerciantsByName.containsKey(name)) {
-            throw new UserNotFoundException("No commerciant found using name: " + name);
-        }
-
-        return commerciantsByName.get(name);
+    public Optional<Commerciant> findCommerciantByName(final String name) {
+        return Optional.ofNullable(commerciantsByName.get(name));
     }
 
     /**
@@ -357,89 +368,91 @@ public final class MappedStorage implements StorageProvider {
      */
     @Override
     public List<Commerciant> getCommerciants() {
-        return List.of(commerciants.toArray(new Commerciant[0]));
+        return commerciantView.get();
     }
 
     /**
-     * Finds an account
-     *
-     * @param iban the account's IBAN to search for
-     * @return the requested account
-     * @throws OwnershipException if no user owns an account with the requested IBAN
+     * {@inheritDoc}
      */
     @Override
-    public Account getAccountByIban(final String iban) throws OwnershipException {
-        if (!accounts.containsKey(iban)) {
-            throw new OwnershipException("No account found using IBAN: " + iban);
-        }
-
-        return accounts.get(iban);
+    public Optional<Account> findAccountByIban(final String iban) {
+        return Optional.ofNullable(accounts.get(Utils.encodeIBAN(iban)));
     }
 
     /**
-     * Finds an account
-     *
-     * @param alias the associated name to search for
-     * @return the requested Account
-     * @throws OwnershipException if no account is associated to the given alias
-     * @throws AliasException     if the given alias is invalid
+     * {@inheritDoc}
      */
     @Override
-    public Account getAccountByAlias(final String alias) throws OwnershipException, AliasException {
-        if (Utils.verifyIBAN(alias)) {
-            throw new AliasException("Unsupported alias format: " + alias);
-        }
-
-        if (!aliases.containsKey(alias)) {
-            throw new OwnershipException("No account found using alias: " + alias);
-        }
-
-        return aliases.get(alias);
+    public Optional<Account> findAccountByAlias(final String alias) {
+        return Optional.ofNullable(aliases.get(alias));
     }
 
     /**
-     * Finds a card
-     *
-     * @param cardNumber the number of the card to search
-     * @return the requested card
-     * @throws OwnershipException if no user owns a card matching the given number
+     * {@inheritDoc}
      */
     @Override
-    public Card getCard(final String cardNumber) throws OwnershipException {
-        if (!cards.containsKey(cardNumber)) {
-            throw new OwnershipException("No card found: " + cardNumber);
-        }
-
-        return cards.get(cardNumber);
+    public Optional<Card> findCard(final String cardNumber) {
+        return Optional.ofNullable(cards.get(Utils.encodeCardNumber(cardNumber)));
     }
 
     /**
      * Retrieves all the users
      *
-     * @return a list of all the users stored inside
+     * @return an immutable list of all the users stored inside
      */
     @Override
     public List<User> getUsers() {
-        return userList;
+        return userView.get();
     }
 
     /**
      * Retrieves all the accounts
      *
-     * @return a list of all the accounts stored inside
+     * @return an immutable list of all the accounts stored inside
      */
     @Override
     public List<Account> getAccounts() {
-        return accounts.values().stream().toList();
+        return accountView.get();
     }
 
     /**
      * Retrieves all the cards
      *
-     * @return a list of all the cards stored inside
+     * @return an immutable list of all the cards stored inside
      */
     @Override
     public List<Card> getCards() {
-        return cards.values().stream().toList();
+        return cardView.get();
+    }
+
+    /**
+     * Creates {@code MappedStorage} instances, the default storage
+     */
+    public static final class Factory implements StorageProviderFactory {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getName() {
+            return "mapped";
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public StorageProvider create() {
+            return new MappedStorage();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Rating rate(final InputProfile profile) {
+            return new Rating(1, "constant time lookups");
+        }
+
     }
 }
@@ -1,30 +1,51 @@
 package org.poo.system.storage;
 
+import org.poo.system.BankingSystem;
 import org.poo.system.exceptions.AliasException;
-import org.poo.system.exceptions.OwnershipException;
-import org.poo.system.exceptions.UserNotFoundException;
 import org.poo.system.user.Account;
 import org.poo.system.user.Card;
 import org.poo.system.commerce.Commerciant;
 import org.poo.system.user.User;
+import org.poo.system.provider.InputProfile;
+import org.poo.utils.CachedView;
+import org.poo.utils.SortedLongIndex;
 import org.poo.utils.Utils;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * A {@code StorageProvider} implementation that stores only the users.
  * </br>
- * All other objects are accessed through the hierarchy, starting from the user
+ * All other objects are accessed through the hierarchy, starting from the user.
+ * Lookups go through compact sorted indexes: encoded IBANs and card numbers
+ * in primitive arrays and aliases in a sorted array, all binary searched.
+ * Each indexed object costs a key and a reference, on top of the object graph
  */
 public final class MemoryEfficientStorage implements StorageProvider {
 
+    private static final int INITIAL_ALIASES = 8;
+
     private final List<User> users = new ArrayList<>();
     private final List<Commerciant> commerciants = new ArrayList<>();
 
+    // Accounts and cards keyed by their encoded IBAN and card number
+    private final SortedLongIndex<Account> accountIndex = new SortedLongIndex<>();
+    private final SortedLongIndex<Card> cardIndex = new SortedLongIndex<>();
+
+    // Immutable copies returned to the readers, rebuilt after the next mutation
+    private final CachedView<User> userView = new CachedView<>(() -> users);
+    private final CachedView<Commerciant> commerciantView = new CachedView<>(() -> commerciants);
+    private final CachedView<Account> accountView = new CachedView<>(accountIndex::values);
+    private final CachedView<Card> cardView = new CachedView<>(cardIndex::values);
+
+    // Sorted aliases, along with their accounts
+    private String[] aliases = new String[INITIAL_ALIASES];
+    private Account[] aliasAccounts = new Account[INITIAL_ALIASES];
+    private int aliasCount = 0;
+
     private boolean isRegistered(final User user) {
         return users.contains(user);
     }
@@ -34,19 +55,47 @@ public final class MemoryEfficientStorage implements StorageProvider {
     }
 
     private boolean isRegistered(final Account account) {
-        Optional<User> registered = users.stream().filter(
-                user -> user.getAccounts().contains(account)
-        ).findFirst();
-
-        return registered.isPresent() && !account.isUnauthorized(registered.get());
+        return account.equals(accountIndex.get(Utils.encodeIBAN(account.getAccountIBAN())));
     }
 
     private boolean isRegistered(final Card card) {
-        Optional<Account> registered = getAccounts().stream().filter(
-                account -> account.getCards().contains(card)
-        ).findFirst();
+        return card.equals(cardIndex.get(Utils.encodeCardNumber(card.getCardNumber())));
+    }
 
-        return registered.isPresent() && registered.get().equals(card.getAccount());
+    private void putAlias(final String alias, final Account account) {
+        int position = Arrays.binarySearch(aliases, 0, aliasCount, alias);
+        if (position >= 0) {
+            aliasAccounts[position] = account;
+            return;
+        }
+
+        position = -position - 1;
+        if (aliasCount == aliases.length) {
+            aliases = Arrays.copyOf(aliases, aliasCount * 2);
+            aliasAccounts = Arrays.copyOf(aliasAccounts, aliasCount * 2);
+        }
+
+        System.arraycopy(aliases, position, aliases, position + 1, aliasCount - position);
+        System.arraycopy(
+                aliasAccounts, position, aliasAccounts, position + 1, aliasCount - position
+        );
+        aliases[position] = alias;
+        aliasAccounts[position] = account;
+        aliasCount++;
+    }
+
+    private void removeAlias(final String alias, final Account account) {
+        int position = Arrays.binarySearch(aliases, 0, aliasCount, alias);
+        if (position < 0 || !aliasAccounts[position].equals(account)) {
+            return;
+        }
+
+        int moved = aliasCount - position - 1;
+        System.arraycopy(aliases, position + 1, aliases, position, moved);
+        System.arraycopy(aliasAccounts, position + 1, aliasAccounts, position, moved);
+        aliasCount--;
+        aliases[aliasCount] = null;
+        aliasAccounts[aliasCount] = null;
     }
 
     /**
@@ -61,6 +110,7 @@ public final class MemoryEfficientStorage implements StorageProvider {
             throw new StorageException("User " + user.getEmail() + " is already registered");
         }
         users.add(user);
+        userView.invalidate();
     }
 
     /**
@@ -80,6 +130,7 @@ public final class MemoryEfficientStorage implements StorageProvider {
         }
 
         commerciants.add(commerciant);
+        commerciantView.invalidate();
     }
 
     /**
@@ -87,12 +138,20 @@ public final class MemoryEfficientStorage implements StorageProvider {
      *
      * @param account the {@code Account} to register
      * @throws StorageException <ul>
+     *                          <li>The account's IBAN can't be encoded</li>
      *                          <li>The account owner is not a registered user</li>
      *                          <li>The account is already registered to another user</li>
      *                          </ul>
      */
     @Override
     public void registerAccount(final Account account) throws StorageException {
+        long key = Utils.encodeIBAN(account.getAccountIBAN());
+        if (key < 0) {
+            throw new StorageException(
+                    "Account " + account.getAccountIBAN() + " has an unsupported IBAN format"
+            );
+        }
+
         if (!isRegistered(account.getOwner())) {
             throw new StorageException(
                     "Account "
@@ -112,7 +171,10 @@ public final class MemoryEfficientStorage implements StorageProvider {
         }
 
         // If there isn't a duplicate, the account is already registered
+        BankingSystem.beforeUpdate(account.getOwner());
         account.getOwner().getAccounts().add(account);
+        accountIndex.put(key, account);
+        accountView.invalidate();
     }
 
     /**
@@ -120,6 +182,7 @@ public final class MemoryEfficientStorage implements StorageProvider {
      *
      * @param card the {@code Card} to register
      * @throws StorageException <ul>
+     *                          <li>The card's number can't be encoded</li>
      *                          <li>The card's owner is not a registered user</li>
      *                          <li>The card's associated account is not registered</li>
      *                          <li>The card is already associated to another account</li>
@@ -127,6 +190,13 @@ public final class MemoryEfficientStorage implements StorageProvider {
      */
     @Override
     public void registerCard(final Card card) throws StorageException {
+        long key = Utils.encodeCardNumber(card.getCardNumber());
+        if (key < 0) {
+            throw new StorageException(
+                    "Card " + card.getCardNumber() + " has an unsupported number format"
+            );
+        }
+
         if (!isRegistered(card.getAccount().getOwner())) {
             throw new StorageException(
                     "Card "
@@ -156,7 +226,10 @@ public final class MemoryEfficientStorage implements StorageProvider {
         }
 
         // If there isn't a duplicate, the account is already registered
+        BankingSystem.beforeUpdate(card.getAccount().getOwner());
         card.getAccount().getCards().add(card);
+        cardIndex.put(key, card);
+        cardView.invalidate();
     }
 
     /**
@@ -199,8 +272,9 @@ public final class MemoryEfficientStorage implements StorageProvider {
             );
         }
 
-        // Set alias if it wasn't set already. Nothing else to do here
+        removeAlias(account.getAlias(), account);
         account.setAlias(alias);
+        putAlias(alias, account);
     }
 
     /**
@@ -232,7 +306,15 @@ public final class MemoryEfficientStorage implements StorageProvider {
             );
         }
 
+        BankingSystem.beforeUpdate(account.getOwner());
         account.getOwner().getAccounts().remove(account);
+        account.getCards().forEach(
+                card -> cardIndex.remove(Utils.encodeCardNumber(card.getCardNumber()))
+        );
+        accountIndex.remove(Utils.encodeIBAN(account.getAccountIBAN()));
+        accountView.invalidate();
+        cardView.invalidate();
+        removeAlias(account.getAlias(), account);
     }
 
     /**
@@ -275,87 +357,46 @@ public final class MemoryEfficientStorage implements StorageProvider {
             );
         }
 
+        BankingSystem.beforeUpdate(card.getAccount().getOwner());
         card.getAccount().getCards().remove(card);
+        cardIndex.remove(Utils.encodeCardNumber(card.getCardNumber()));
+        cardView.invalidate();
     }
 
     /**
-     * Finds an user
-     *
-     * @param email the email associated with the user
-     * @return the requested user
-     * @throws UserNotFoundException if the user doesn't exist
+     * {@inheritDoc}
      */
     @Override
-    public User getUserByEmail(final String email) throws UserNotFoundException {
-        Optional<User> user = users.stream().filter(u -> u.getEmail().equals(email)).findFirst();
-        if (user.isEmpty()) {
-            throw new UserNotFoundException("No user found using email: " + email);
-        }
-
-        return user.get();
+    public Optional<User> findUserByEmail(final String email) {
+        return users.stream().filter(u -> u.getEmail().equals(email)).findFirst();
     }
 
     /**
-     * Finds an user
-     *
-     * @param iban the IBAN of the account owned by the user
-     * @return the requested user
-     * @throws UserNotFoundException if no user owns an account with the given IBAN
+     * {@inheritDoc}
      */
     @Override
-    public User getUserByIban(final String iban) throws UserNotFoundException {
-        Optional<User> user =
-                users.stream().filter(
-                    u -> u.getAccounts().stream().anyMatch(
-                            a -> a.getAccountIBAN().equals(iban)
-                    )
-                ).findFirst();
-
-        if (user.isEmpty()) {
-            throw new UserNotFoundException("No user found using IBAN: " + iban);
-        }
-
-        return user.get();
+    public Optional<User> findUserByIban(final String iban) {
+        return findAccountByIban(iban).map(Account::getOwner);
     }
 
     /**
-     * Finds a commerciant
-     *
-     * @param iban the IBAN of the commerciant
-     * @return the requested commerciant
-     * @throws UserNotFoundException if no commerciant exists with the given IBAN
+     * {@inheritDoc}
      */
     @Override
-    public Commerciant getCommerciantByIban(final String iban) throws UserNotFoundException {
-        Optional<Commerciant> commerciant = commerciants.stream().filter(
+    public Optional<Commerciant> findCommerciantByIban(final String iban) {
+        return commerciants.stream().filter(
                 comm -> comm.getAccountIBAN().equals(iban)
         ).findFirst();
-
-        if (commerciant.isEmpty()) {
-            throw new UserNotFoundException("No commerciant found using IBAN: " + iban);
-        }
-
-        return commerciant.get();
     }
 
     /**
-     * Finds a commerciant
-     *
-     * @param name the IBAN of the commerciant
-     * @return the requested commerciant
-     * @throws UserNotFoundException if no commerciant exists with the given name
+     * {@inheritDoc}
      */
     @Override
-    public Commerciant getCommerciantByName(final String name) throws UserNotFoundException {
-        Optional<Commerciant> commerciant = commerciants.stream().filter(
+    public Optional<Commerciant> findCommerciantByName(final String name) {
+        return commerciants.stream().filter(
                 comm -> comm.getName().equals(name)
         ).findFirst();
-
-        if (commerciant.isEmpty()) {
-            throw new UserNotFoundException("No commerciant found using name: " + name);
-        }
-
-        return commerciant.get();
     }
 
     /**
@@ -365,109 +406,110 @@ public final class MemoryEfficientStorage implements StorageProvider {
      */
     @Override
     public List<Commerciant> getCommerciants() {
-        return List.of(commerciants.toArray(new Commerciant[0]));
+        return commerciantView.get();
     }
 
     /**
-     * Finds an account
-     *
-     * @param iban the account's IBAN to search for
-     * @return the requested account
-     * @throws OwnershipException if no user owns an account with the requested IBAN
+     * {@inheritDoc}
      */
     @Override
-    public Account getAccountByIban(final String iban) throws OwnershipException {
-        Optional<Account> account = getAccounts()
-                .stream()
-                .filter(a -> a.getAccountIBAN().equals(iban))
-                .findFirst();
-
-        if (account.isEmpty()) {
-            throw new OwnershipException("No account found using IBAN: " + iban);
-        }
-
-        return account.get();
+    public Optional<Account> findAccountByIban(final String iban) {
+        return Optional.ofNullable(accountIndex.get(Utils.encodeIBAN(iban)));
     }
 
     /**
-     * Finds an account
-     *
-     * @param alias the associated name to search for
-     * @return the requested Account
-     * @throws OwnershipException if no account is associated to the given alias
-     * @throws AliasException if the given alias is invalid
+     * {@inheritDoc}
      */
     @Override
-    public Account getAccountByAlias(final String alias) throws OwnershipException, AliasException {
-        if (Utils.verifyIBAN(alias)) {
-            throw new AliasException("Unsupported alias format: " + alias);
-        }
-
-        Optional<Account> account = getAccounts().stream().filter(
-                a -> !a.getAlias().isEmpty() && a.getAlias().equals(alias)
-        ).findFirst();
-
-        if (account.isEmpty()) {
-            throw new OwnershipException("No account found using alias: " + alias);
-        }
-
-        return account.get();
+    public Optional<Account> findAccountByAlias(final String alias) {
+        int position = Arrays.binarySearch(aliases, 0, aliasCount, alias);
+        return position < 0 ? Optional.empty() : Optional.of(aliasAccounts[position]);
     }
 
     /**
-     * Finds a card
-     *
-     * @param cardNumber the number of the card to search
-     * @return the requested card
-     * @throws OwnershipException if no user owns a card matching the given number
+     * {@inheritDoc}
      */
     @Override
-    public Card getCard(final String cardNumber) throws OwnershipException {
-        Optional<Card> card = getCards().stream().filter(
-                c -> c.getCardNumber().equals(cardNumber)
-        ).findFirst();
-
-        if (card.isEmpty()) {
-            throw new OwnershipException("No card found: " + cardNumber);
-        }
-
-        return card.get();
+    public Optional<Card> findCard(final String cardNumber) {
+        return Optional.ofNullable(cardIndex.get(Utils.encodeCardNumber(cardNumber)));
     }
 
     /**
      * Retrieves all the users
      *
-     * @return a list of all the users stored inside
+     * @return an immutable list of all the users stored inside
      */
     @Override
     public List<User> getUsers() {
-        return users;
+        return userView.get();
     }
 
     /**
      * Retrieves all the accounts
-     * @return a list of all the accounts stored inside
+     *
+     * @return an immutable list of all the accounts stored inside, sorted by IBAN
      */
     @Override
     public List<Account> getAccounts() {
-        return users
-                .stream()
-                .map(User::getAccounts)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+        return accountView.get();
     }
 
     /**
      * Retrieves all the cards
      *
-     * @return a list of all the cards stored inside
+     * @return an immutable list of all the cards stored inside, sorted by number
      */
     @Override
     public List<Card> getCards() {
-        return users.stream().map(
-                u -> u.getAccounts().stream().map(
-                        Account::getCards
-                ).flatMap(Collection::stream).collect(Collectors.toList())
-        ).flatMap(Collection::stream).collect(Collectors.toList());
+        return cardView.get();
+    }
+
+    /**
+     * Creates {@code MemoryEfficientStorage} instances,
+     * preferred when the maps of {@code MappedStorage} would take too much of the heap
+     */
+    public static final class Factory implements StorageProviderFactory {
+
+        // Approximate heap used by the maps of {@code MappedStorage} for each entity
+        private static final long MAPPED_BYTES_PER_ENTITY = 64;
+        // The maps may use up to 1 / HEAP_SHARE of the heap
+        private static final int HEAP_SHARE = 4;
+        private static final long MEGABYTE = 1024 * 1024;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getName() {
+            return "memory-efficient";
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public StorageProvider create() {
+            return new MemoryEfficientStorage();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Rating rate(final InputProfile profile) {
+            long needed = profile.estimatedEntities() * MAPPED_BYTES_PER_ENTITY;
+            long budget = Runtime.getRuntime().maxMemory() / HEAP_SHARE;
+            if (needed <= budget) {
+                return new Rating(0, "the maps fit in the heap");
+            }
+
+            return new Rating(
+                    2,
+                    "the maps would need about "
+                            + needed / MEGABYTE
+                            + " MB, over 1/" + HEAP_SHARE + " of the heap"
+            );
+        }
+
     }
 }
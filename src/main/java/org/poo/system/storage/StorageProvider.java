@@ -7,8 +7,10 @@ import org.poo.system.user.Account;
 import org.poo.system.user.Card;
 import org.poo.system.commerce.Commerciant;
 import org.poo.system.user.User;
+import org.poo.utils.Utils;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface StorageProvider {
 
@@ -92,6 +94,70 @@ public interface StorageProvider {
      */
     void removeCard(Card card) throws StorageException;
 
+    /**
+     * Finds an user
+     *
+     * @param email the email associated with the user
+     * @return the requested user or an empty optional if the user doesn't exist
+     */
+    Optional<User> findUserByEmail(String email);
+
+    /**
+     * Finds an user
+     *
+     * @param iban the IBAN of the account owned by the user
+     * @return the requested user or an empty optional if no user owns
+     * an account with the given IBAN
+     */
+    Optional<User> findUserByIban(String iban);
+
+    /**
+     * Finds a commerciant
+     *
+     * @param iban the IBAN of the commerciant
+     * @return the requested commerciant or an empty optional if no commerciant
+     * exists with the given IBAN
+     */
+    Optional<Commerciant> findCommerciantByIban(String iban);
+
+    /**
+     * Finds a commerciant
+     *
+     * @param name the name of the commerciant
+     * @return the requested commerciant or an empty optional if no commerciant
+     * exists with the given name
+     */
+    Optional<Commerciant> findCommerciantByName(String name);
+
+    /**
+     * Finds an account
+     *
+     * @param iban the account's IBAN to search for
+     * @return the requested account or an empty optional if no user owns
+     * an account with the requested IBAN
+     */
+    Optional<Account> findAccountByIban(String iban);
+
+    /**
+     * Finds an account
+     * </br>
+     * The alias is not validated, an IBAN will never match any alias
+     *
+     * @param alias the associated name to search for
+     * @return the requested account or an empty optional if no account
+     * is associated to the given alias
+     */
+    Optional<Account> findAccountByAlias(String alias);
+
+    /**
+     * Finds a card
+     *
+     * @param cardNumber the number of the card to search
+     * @return the requested card or an empty optional if no user owns
+     * a card matching the given number
+     */
+    Optional<Card> findCard(String cardNumber);
+
     /**
      * Finds an user
      *
@@ -99,7 +165,11 @@ public interface StorageProvider {
      * @return the requested user
      * @throws UserNotFoundException if the user doesn't exist
      */
-    User getUserByEmail(String email) throws UserNotFoundException;
+    default User getUserByEmail(final String email) throws UserNotFoundException {
+        return findUserByEmail(email).orElseThrow(() -> new UserNotFoundException(
+                () -> "No user found using email: " + email
+        ));
+    }
 
     /**
      * Finds an user
@@ -108,7 +178,11 @@ public interface StorageProvider {
      * @return the requested user
      * @throws UserNotFoundException if no user owns an account with the given IBAN
      */
-    User getUserByIban(String iban) throws UserNotFoundException;
+    default User getUserByIban(final String iban) throws UserNotFoundException {
+        return findUserByIban(iban).orElseThrow(() -> new UserNotFoundException(
+                () -> "No user found using IBAN: " + iban
+        ));
+    }
 
     /**
      * Finds a commerciant
@@ -117,17 +191,24 @@ public interface StorageProvider {
      * @return the requested commerciant
      * @throws UserNotFoundException if no commerciant exists with the given IBAN
      */
-    Commerciant getCommerciantByIban(String iban) throws UserNotFoundException;
+    default Commerciant getCommerciantByIban(final String iban) throws UserNotFoundException {
+        return findCommerciantByIban(iban).orElseThrow(() -> new UserNotFoundException(
+                () -> "No commerciant found using IBAN: " + iban
+        ));
+    }
 
     /**
      * Finds a commerciant
      *
-     * @param name the IBAN of the commerciant
+     * @param name the name of the commerciant
      * @return the requested commerciant
      * @throws UserNotFoundException if no commerciant exists with the given name
      */
-    Commerciant getCommerciantByName(String name) throws UserNotFoundException;
-
+    default Commerciant getCommerciantByName(final String name) throws UserNotFoundException {
+        return findCommerciantByName(name).orElseThrow(() -> new UserNotFoundException(
+                () -> "No commerciant found using name: " + name
+        ));
+    }
 
     /**
      * Retrieves all registered commerciants
@@ -143,7 +224,11 @@ public interface StorageProvider {
      * @return the requested account
      * @throws OwnershipException if no user owns an account with the requested IBAN
      */
-    Account getAccountByIban(String iban) throws OwnershipException;
+    default Account getAccountByIban(final String iban) throws OwnershipException {
+        return findAccountByIban(iban).orElseThrow(() -> new OwnershipException(
+                () -> "No account found using IBAN: " + iban
+        ));
+    }
 
     /**
      * Finds an account
@@ -153,7 +238,17 @@ public interface StorageProvider {
      * @throws OwnershipException if no account is associated to the given alias
      * @throws AliasException if the given alias is invalid
      */
-    Account getAccountByAlias(String alias) throws OwnershipException, AliasException;
+    default Account getAccountByAlias(
+            final String alias
+    ) throws OwnershipException, AliasException {
+        if (Utils.verifyIBAN(alias)) {
+            throw new AliasException(() -> "Unsupported alias format: " + alias);
+        }
+
+        return findAccountByAlias(alias).orElseThrow(() -> new OwnershipException(
+                () -> "No account found using alias: " + alias
+        ));
+    }
 
     /**
      * Finds a card
@@ -162,23 +257,27 @@ public interface StorageProvider {
      * @return the requested card
      * @throws OwnershipException if no user owns a card matching the given number
      */
-    Card getCard(String cardNumber) throws OwnershipException;
+    default Card getCard(final String cardNumber) throws OwnershipException {
+        return findCard(cardNumber).orElseThrow(() -> new OwnershipException(
+                () -> "No card found: " + cardNumber
+        ));
+    }
 
     /**
      * Retrieves all the users
-     * @return a list of all the users stored inside
+     * @return an immutable list of all the users stored inside
      */
     List<User> getUsers();
 
     /**
      * Retrieves all the accounts
-     * @return a list of all the accounts stored inside
+     * @return an immutable list of all the accounts stored inside
      */
     List<Account> getAccounts();
 
     /**
      * Retrieves all the cards
-     * @return a list of all the cards stored inside
+     * @return an immutable list of all the cards stored inside
      */
     List<Card> getCards();
 
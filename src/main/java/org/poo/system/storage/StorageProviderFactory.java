@@ -0,0 +1,10 @@
+package org.poo.system.storage;
+
+import org.poo.system.provider.ProviderFactory;
+
+/**
+ * Creates {@code StorageProvider} instances,
+ * implementations are registered as services
+ */
+public interface StorageProviderFactory extends ProviderFactory<StorageProvider> {
+}
@@ -3,16 +3,19 @@ package org.poo.system.user;
 
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.Setter;
 import org.poo.io.StateWriter;
 import org.poo.system.BankingSystem;
-import org.poo.system.Transaction;
 import org.poo.system.commerce.Commerciant;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OperationException;
 import org.poo.system.exceptions.OwnershipException;
 import org.poo.system.exchange.Amount;
+import org.poo.system.exchange.Currency;
+import org.poo.system.exchange.Money;
+import org.poo.system.history.TransactionHistory;
+import org.poo.system.user.plan.ServicePlan;
 import org.poo.utils.NodeConvertable;
 
 import java.util.ArrayList;
@@ -21,6 +24,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Getter
 public class Account implements NodeConvertable {
@@ -56,29 +60,32 @@ public class Account implements NodeConvertable {
 
     }
 
+    // Ids are handed out in creation order
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    private final long id = NEXT_ID.incrementAndGet();
 
     protected final User owner;
 
     protected final String accountIBAN;
     protected final Type accountType;
 
-    @Setter
     protected Amount spendingLimit;
 
-    @Setter
     protected Amount depositLimit;
 
-    @Setter
     private String alias = "";
-    @Setter
     private double interest;
 
-    protected Amount funds;
-    @Setter
-    protected double minBalance = 0;
+    protected final Currency unit;
+    protected final String currency;
+    // Funds and minimum balance in minor units, see {@code Money}
+    protected long balance = 0;
+    @Getter(AccessLevel.NONE)
+    protected long minBalance = 0;
 
     protected final List<Card> cards = new ArrayList<>();
-    protected final List<Transaction> transactions = new ArrayList<>();
+    protected final TransactionHistory transactions;
     protected final Map<Commerciant.Type, Boolean> coupons = new HashMap<>();
 
     public Account(
@@ -89,8 +96,13 @@ public class Account implements NodeConvertable {
     ) {
         this.owner = owner;
         this.accountIBAN = accountIBAN;
-        this.funds = new Amount(0, currency);
+        this.unit = Currency.of(currency);
+        this.currency = unit.getCode();
         this.accountType = accountType;
+        this.transactions = new TransactionHistory(
+                BankingSystem.getTransactionStore(),
+                () -> BankingSystem.beforeUpdate(owner)
+        );
 
         // Mark all coupons as unclaimed
         for (Commerciant.Type type : Commerciant.Type.values()) {
@@ -100,10 +112,107 @@ public class Account implements NodeConvertable {
     }
 
     /**
-     * @return the account's currency
+     * Accounts are equal only to themselves, the id never changes,
+     * so accounts are safe to use inside hash based structures
+     *
+     * @param obj the other object to compare with
+     * @return whether this instance and obj are equal
+     */
+    @Override
+    public final boolean equals(final Object obj) {
+        if (obj instanceof Account other) {
+            return id == other.id;
+        }
+
+        return false;
+    }
+
+    /**
+     * Restarts the id sequence, used between inputs so every input
+     * hands out the same ids. Accounts created before keep their ids
+     */
+    public static void resetIds() {
+        NEXT_ID.set(0);
+    }
+
+    /**
+     * @return the account's hash
+     */
+    @Override
+    public final int hashCode() {
+        return Long.hashCode(id);
+    }
+
+    /**
+     * @return the account's funds
+     */
+    public Amount getFunds() {
+        return Money.toAmount(balance, unit);
+    }
+
+    /**
+     * @return the minimum balance, in the account's currency
+     */
+    public double getMinBalance() {
+        return Money.toTotal(minBalance);
+    }
+
+    /**
+     * @return the minimum balance, in minor units
      */
-    public String getCurrency() {
-        return this.funds.currency();
+    public long getMinBalanceUnits() {
+        return minBalance;
+    }
+
+    /**
+     * @param newMinBalance the new minimum balance, in the account's currency
+     */
+    public void setMinBalance(final double newMinBalance) {
+        BankingSystem.beforeUpdate(owner);
+        this.minBalance = Money.fromTotal(newMinBalance);
+    }
+
+    /**
+     * @param newSpendingLimit the new limit of a single spending
+     */
+    public void setSpendingLimit(final Amount newSpendingLimit) {
+        BankingSystem.beforeUpdate(owner);
+        this.spendingLimit = newSpendingLimit;
+    }
+
+    /**
+     * @param newDepositLimit the new limit of a single deposit
+     */
+    public void setDepositLimit(final Amount newDepositLimit) {
+        BankingSystem.beforeUpdate(owner);
+        this.depositLimit = newDepositLimit;
+    }
+
+    /**
+     * @param newAlias the new alias of the account
+     */
+    public void setAlias(final String newAlias) {
+        BankingSystem.beforeUpdate(owner);
+        this.alias = newAlias;
+    }
+
+    /**
+     * @param newInterest the new interest rate of the account
+     */
+    public void setInterest(final double newInterest) {
+        BankingSystem.beforeUpdate(owner);
+        this.interest = newInterest;
+    }
+
+    /**
+     * Restores the funds of the account from a snapshot
+     *
+     * @param newBalance the balance, in minor units
+     * @param newMinBalance the minimum balance, in minor units
+     */
+    public void restoreFunds(final long newBalance, final long newMinBalance) {
+        this.balance = newBalance;
+        this.minBalance = newMinBalance;
     }
 
     /**
@@ -115,12 +224,12 @@ public class Account implements NodeConvertable {
             final Amount amount,
             final boolean canGoUnderMinimum
     ) {
-        Amount newBalance = funds.sub(amount);
+        long newBalance = Money.subtract(balance, Money.of(amount, unit));
         if (!canGoUnderMinimum) {
-            return newBalance.total() > minBalance;
+            return newBalance > minBalance;
         }
 
-        return newBalance.total() > 0.0;
+        return newBalance > 0;
     }
 
     /**
@@ -151,16 +260,25 @@ public class Account implements NodeConvertable {
 
         // Remove the card from storage
         BankingSystem.getStorageProvider().removeCard(card);
-        BankingSystem.log("Deleted card: " + card.getCardNumber());
+        BankingSystem.log(() -> "Deleted card: " + card.getCardNumber());
     }
 
     /**
-     * Applies the owner's fee for the given amount
+     * Applies the owner's fee for the given amount,
+     * then the automatic upgrade the payment may have triggered
+     * </br>
+     * The fee is taken by the plan the payment was made with,
+     * the rest of the payment (such as its cashback) sees the upgraded plan
      *
      * @param amount the amount to take the fee for
      */
     public void applyFee(final Amount amount) {
-        funds = funds.sub(owner.getServicePlan().getFee(this, amount));
+        BankingSystem.beforeUpdate(owner);
+        ServicePlan plan = owner.getServicePlan();
+        plan.trackPayment(this, amount);
+        balance = Money.subtract(balance, plan.getFee(Money.of(amount, unit), unit));
+
+        BankingSystem.getUpgradeProcessor().drain();
     }
 
     /**
@@ -175,19 +293,22 @@ public class Account implements NodeConvertable {
             final Commerciant commerciant,
             final Amount amount
     ) {
-        Amount cashback = commerciant.getStrategy().apply(this, amount);
+        // The strategy updates the coupons and the commerciant's counters as well
+        BankingSystem.beforeUpdate(owner);
+        long cashback = commerciant.getStrategy().apply(this, Money.of(amount, unit));
+        long newBalance = Money.add(balance, cashback);
 
-        if (cashback.total() > 0.0) {
+        if (cashback > 0) {
             BankingSystem.log(
-                    accountIBAN
+                    () -> accountIBAN
                             + "[cashback]: "
-                            + funds
+                            + Money.format(balance, unit)
                             + " -> "
-                            + funds.add(cashback)
+                            + Money.format(newBalance, unit)
             );
         }
 
-        funds = funds.add(cashback);
+        balance = newBalance;
     }
 
     /**
@@ -198,17 +319,7 @@ public class Account implements NodeConvertable {
             final User user,
             final Amount amount
     ) {
-        Amount newBalance = funds.add(amount);
-
-        BankingSystem.log(
-                accountIBAN
-                        + "[deposit]: "
-                        + funds
-                        + " -> "
-                        + newBalance
-        );
-
-        funds = newBalance;
+        deposit(Money.of(amount, unit));
     }
 
     /**
@@ -221,24 +332,97 @@ public class Account implements NodeConvertable {
             final User user,
             final Amount amount
     ) throws OperationException {
-        Amount newBalance = funds.sub(amount);
+        spend(Money.of(amount, unit));
+    }
 
-        if (newBalance.total() < 0.0) {
+    /**
+     * Spends the amount if the user is allowed to,
+     * a refusal is an expected outcome so nothing is thrown for it
+     *
+     * @param user the user to check the authorization
+     * @param amount the amount to spend
+     * @return whether the amount was spent
+     */
+    public boolean trySpending(
+            final User user,
+            final Amount amount
+    ) {
+        long units = Money.of(amount, unit);
+        if (!canSpend(units)) {
+            return false;
+        }
+
+        withdraw(units);
+        return true;
+    }
+
+    /**
+     * Adds already authorized funds to the account
+     *
+     * @param units the minor units to deposit, in the account's currency
+     */
+    protected void deposit(final long units) {
+        BankingSystem.beforeUpdate(owner);
+        long newBalance = Money.add(balance, units);
+
+        BankingSystem.log(
+                () -> accountIBAN
+                        + "[deposit]: "
+                        + Money.format(balance, unit)
+                        + " -> "
+                        + Money.format(newBalance, unit)
+        );
+
+        balance = newBalance;
+    }
+
+    /**
+     * Takes already authorized funds from the account
+     *
+     * @param units the minor units to spend, in the account's currency
+     * @throws OperationException if the account doesn't have enough funds
+     * or if it will go under the minimum
+     */
+    protected void spend(final long units) throws OperationException {
+        long newBalance = Money.subtract(balance, units);
+
+        if (newBalance < 0) {
             throw new OperationException("Insufficient funds");
         }
-        if (newBalance.total() < minBalance) {
+        if (newBalance < minBalance) {
             throw new OperationException("Under minimum");
         }
 
+        withdraw(units);
+    }
+
+    /**
+     * @param units the minor units to spend, in the account's currency
+     * @return whether the account has the funds, without going under the minimum
+     */
+    protected boolean canSpend(final long units) {
+        long newBalance = Money.subtract(balance, units);
+        return newBalance >= 0 && newBalance >= minBalance;
+    }
+
+    /**
+     * Takes funds that were checked to be available from the account
+     *
+     * @param units the minor units to spend, in the account's currency
+     */
+    protected void withdraw(final long units) {
+        BankingSystem.beforeUpdate(owner);
+        long newBalance = Money.subtract(balance, units);
+
         BankingSystem.log(
-                accountIBAN
+                () -> accountIBAN
                         + "[spending]: "
-                        + funds
+                        + Money.format(balance, unit)
                         + " -> "
-                        + newBalance
+                        + Money.format(newBalance, unit)
         );
 
-        funds = newBalance;
+        balance = newBalance;
     }
 
     /**
@@ -248,9 +432,9 @@ public class Account implements NodeConvertable {
     public ObjectNode toNode() {
         ObjectNode root = StateWriter.getMapper().createObjectNode();
         root.put("IBAN", accountIBAN);
-        root.put("currency", funds.currency());
+        root.put("currency", currency);
         root.put("type", accountType.toString());
-        root.put("balance", funds.total());
+        root.put("balance", Money.toTotal(balance));
 
         ArrayNode cardsNode = root.putArray("cards");
         for (Card card : cards) {
@@ -11,13 +11,17 @@ import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OperationException;
 import org.poo.system.exceptions.OwnershipException;
 import org.poo.system.exchange.Amount;
+import org.poo.system.exchange.Money;
 import org.poo.utils.NodeConvertable;
+import org.poo.utils.TimeSeries;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 @Getter @Setter
 public class BusinessAccount extends Account {
@@ -50,34 +54,62 @@ public class BusinessAccount extends Account {
         }
     }
 
-    public record AssociateData(
-            User associate,
-            BusinessAccount.Role role,
-            Amount spent,
-            Amount deposited
-    ) implements NodeConvertable {
+    @Getter
+    public static final class AssociateData implements NodeConvertable {
+        private final User associate;
+        private final BusinessAccount.Role role;
+        // Built and interned once, shared by every report and account mentioning the associate
+        private final String username;
+
+        // Amounts in the account's currency, bucketed by timestamp
+        private final TimeSeries spent = new TimeSeries();
+        private final TimeSeries deposited = new TimeSeries();
+
+        public AssociateData(
+                final User associate,
+                final BusinessAccount.Role role
+        ) {
+            this.associate = associate;
+            this.role = role;
+            this.username = associate.getUsername().intern();
+        }
 
         /**
-         * Converts the implementing instance to an {@code ObjectNode}
+         * Converts the associate's activity between two timestamps to an {@code ObjectNode}
          *
+         * @param start the first timestamp of the interval (inclusive)
+         * @param end the last timestamp of the interval (inclusive)
          * @return the instance's JSON representation
          */
-        @Override
-        public ObjectNode toNode() {
+        public ObjectNode toNode(final int start, final int end) {
             ObjectNode output = StateWriter.getMapper().createObjectNode();
-            output.put("username", associate.getLastName() + " " + associate.getFirstName());
-            output.put("spent", spent.total());
-            output.put("deposited", deposited.total());
+            output.put("username", username);
+            output.put("spent", spent.sum(start, end));
+            output.put("deposited", deposited.sum(start, end));
 
             return output;
         }
+
+        /**
+         * Converts the implementing instance to an {@code ObjectNode}
+         *
+         * @return the instance's JSON representation
+         */
+        @Override
+        public ObjectNode toNode() {
+            return toNode(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
     }
 
 
-    private static final Amount INITIAL_LIMIT = new Amount(500, "RON");
+    // Kept as a total, currencies are registered again for every input
+    private static final double INITIAL_LIMIT = 500;
+    private static final String LIMIT_CURRENCY = "RON";
 
-    private final List<AssociateData> associateDataList = new ArrayList<>();
-    private final List<CommerciantSpending> commerciantSpendingList = new ArrayList<>();
+    // Associates indexed by email, kept in the order they were added
+    private final Map<String, AssociateData> associates = new LinkedHashMap<>();
+    // Spending statistics indexed (and sorted) by commerciant name
+    private final SortedMap<String, CommerciantSpending> commerciantSpendings = new TreeMap<>();
 
     public BusinessAccount(
             final User owner,
@@ -85,8 +117,8 @@ public class BusinessAccount extends Account {
             final String currency
     ) {
         super(owner, accountIBAN, currency, Type.BUSINESS);
-        spendingLimit = INITIAL_LIMIT.to(currency);
-        depositLimit = INITIAL_LIMIT.to(currency);
+        spendingLimit = new Amount(INITIAL_LIMIT, LIMIT_CURRENCY).to(unit);
+        depositLimit = spendingLimit;
     }
 
     /**
@@ -106,42 +138,39 @@ public class BusinessAccount extends Account {
             );
         }
 
-        // Retrieve the associate data
-        AssociateData data;
-        try {
-            data = getAssociateData(associate);
-        } catch (OwnershipException e) {
-            // The user is not an associate, which is good
-            // Add it
-            associateDataList.add(new AssociateData(
-                    associate,
-                    role,
-                    Amount.zero(funds.currency()),
-                    Amount.zero(funds.currency())
-            ));
-            // Give access to the associate to the account
-            associate.getAccounts().add(this);
-
-            BankingSystem.log(
-                    "Added "
-                            + associate.getUsername()
-                            + " as "
-                            + role
-                            + " to "
-                            + accountIBAN
+        // Associates can't have multiple roles
+        if (associates.containsKey(associate.getEmail())) {
+            throw new OperationException(
+                    "Associate "
+                            + associate.getEmail()
+                            + " already has a role"
             );
-
         }
 
-        // Associate was found, can't have multiple roles
-        throw new OperationException(
-                "Associate "
-                        + associate.getEmail()
-                        + " already has a role"
+        BankingSystem.beforeUpdate(owner);
+        BankingSystem.beforeUpdate(associate);
+        associates.put(
+                associate.getEmail(),
+                new AssociateData(associate, role)
         );
+        // Give access to the associate to the account
+        associate.getAccounts().add(this);
 
+        BankingSystem.log(
+                () -> "Added "
+                        + associate.getUsername()
+                        + " as "
+                        + role
+                        + " to "
+                        + accountIBAN
+        );
+    }
 
-
+    /**
+     * @return the associates' data, in the order they were added
+     */
+    public Collection<AssociateData> getAssociateDataList() {
+        return associates.values();
     }
 
     /**
@@ -152,13 +181,9 @@ public class BusinessAccount extends Account {
     public AssociateData getAssociateData(
             final User associate
     ) throws OwnershipException {
-        Optional<AssociateData> associateData =
-                associateDataList
-                        .stream()
-                        .filter(ad -> ad.associate().equals(associate))
-                        .findFirst();
+        AssociateData associateData = associates.get(associate.getEmail());
 
-        if (associateData.isEmpty()) {
+        if (associateData == null) {
             throw new OwnershipException(
                     "Associate "
                             + associate.getEmail()
@@ -166,61 +191,41 @@ public class BusinessAccount extends Account {
             );
         }
 
-        return associateData.get();
+        return associateData;
     }
 
     private void updateDeposit(
-            final User associate,
-            final Amount deposited
-    ) throws OwnershipException {
-        AssociateData data = getAssociateData(associate);
-
-        AssociateData newData = new AssociateData(
-                associate,
-                data.role(),
-                data.spent(),
-                deposited
-        );
+            final AssociateData data,
+            final long units
+    ) {
+        double previous = data.deposited.total();
+        data.deposited.add(BankingSystem.getTimestamp(), Money.toTotal(units));
 
         BankingSystem.log(
-                "Updated deposit for "
-                        + associate.getUsername()
+                () -> "Updated deposit for "
+                        + data.associate.getUsername()
                         + ": "
-                        + data.deposited()
+                        + previous
                         + " -> "
-                        + deposited
+                        + data.deposited.total()
         );
-
-        int oldIndex = associateDataList.indexOf(data);
-        associateDataList.remove(data);
-        associateDataList.add(oldIndex, newData);
     }
 
     private void updateSpending(
-            final User associate,
-            final Amount spending
-    ) throws OwnershipException {
-        AssociateData data = getAssociateData(associate);
-
-        AssociateData newData = new AssociateData(
-                associate,
-                data.role(),
-                spending,
-                data.deposited()
-        );
+            final AssociateData data,
+            final long units
+    ) {
+        double previous = data.spent.total();
+        data.spent.add(BankingSystem.getTimestamp(), Money.toTotal(units));
 
         BankingSystem.log(
-                "Updated spending for "
-                        + associate.getUsername()
+                () -> "Updated spending for "
+                        + data.associate.getUsername()
                         + ": "
-                        + data.spent()
+                        + previous
                         + " -> "
-                        + spending
+                        + data.spent.total()
         );
-
-        int oldIndex = associateDataList.indexOf(data);
-        associateDataList.remove(data);
-        associateDataList.add(oldIndex, newData);
     }
 
     /**
@@ -234,13 +239,7 @@ public class BusinessAccount extends Account {
         }
 
         // If the user is not the owner, check if it's an associate
-        try {
-            getAssociateData(user);
-        } catch (OwnershipException e) {
-            return true;
-        }
-
-        return false;
+        return !associates.containsKey(user.getEmail());
     }
 
     /**
@@ -254,7 +253,7 @@ public class BusinessAccount extends Account {
             final Card card
     ) throws OwnershipException {
         AssociateData associateData = getAssociateData(user);
-        if (associateData.role() == Role.EMPLOYEE
+        if (associateData.getRole() == Role.EMPLOYEE
                 && !card.getCreator().equals(user)) {
             throw new OwnershipException("You are not authorized to make this transaction.");
         }
@@ -279,16 +278,15 @@ public class BusinessAccount extends Account {
         }
 
         AssociateData associateData = getAssociateData(user);
+        long units = Money.of(amount, unit);
 
-        Amount newDeposited = associateData.deposited().add(amount);
-
-        if (associateData.role() != Role.MANAGER
-                && amount.sub(depositLimit).total() > 0.0) {
+        if (associateData.getRole() != Role.MANAGER
+                && units > Money.of(depositLimit, unit)) {
             throw new OperationException("You are not authorized to make this transaction.");
         }
 
-        super.authorizeDeposit(user, amount);
-        updateDeposit(user, newDeposited);
+        deposit(units);
+        updateDeposit(associateData, units);
     }
 
     /**
@@ -308,33 +306,69 @@ public class BusinessAccount extends Account {
         }
 
         AssociateData associateData = getAssociateData(user);
+        long units = Money.of(amount, unit);
 
-        Amount newSpending = associateData.spent().add(amount);
-
-        if (associateData.role() != Role.MANAGER
-                && amount.sub(spendingLimit).total() > 0.0) {
+        if (associateData.getRole() != Role.MANAGER
+                && units > Money.of(spendingLimit, unit)) {
             throw new OperationException("You are not authorized to make this transaction.");
         }
 
-        super.authorizeSpending(user, amount);
-        updateSpending(user, newSpending);
+        spend(units);
+        updateSpending(associateData, units);
     }
 
-    private CommerciantSpending getCommerciantSpending(final String commerciantName) {
-        Optional<CommerciantSpending> oSpending =
-                commerciantSpendingList
-                        .stream()
-                        .filter(cs -> cs.getName().equals(commerciantName))
-                        .findFirst();
+    /**
+     * Spends the amount if the user is allowed to,
+     * including the associate's spending limit
+     *
+     * @param user the user to check the authorization
+     * @param amount the amount to spend
+     * @return whether the amount was spent
+     * @throws OwnershipException if the user is not an associate
+     */
+    @Override
+    public boolean trySpending(
+            final User user,
+            final Amount amount
+    ) throws OwnershipException {
+        if (owner.equals(user)) {
+            return super.trySpending(user, amount);
+        }
 
-        CommerciantSpending spending = oSpending.orElse(null);
+        AssociateData associateData = getAssociateData(user);
+        long units = Money.of(amount, unit);
+
+        if (associateData.getRole() != Role.MANAGER
+                && units > Money.of(spendingLimit, unit)) {
+            return false;
+        }
 
-        if (spending == null) {
-            spending = new CommerciantSpending(commerciantName, getCurrency());
-            commerciantSpendingList.add(spending);
+        if (!canSpend(units)) {
+            return false;
         }
 
-        return spending;
+        withdraw(units);
+        updateSpending(associateData, units);
+        return true;
+    }
+
+    /**
+     * @param commerciantName the name of the commerciant
+     * @return the spending statistics of the commerciant, created if missing
+     */
+    public CommerciantSpending getCommerciantSpending(final String commerciantName) {
+        return commerciantSpendings.computeIfAbsent(
+                commerciantName,
+                CommerciantSpending::new
+        );
+    }
+
+    /**
+     * @return the spending statistics for every commerciant paid by the associates,
+     * sorted by the commerciant's name
+     */
+    public Collection<CommerciantSpending> getCommerciantSpendingList() {
+        return commerciantSpendings.values();
     }
 
     /**
@@ -358,22 +392,13 @@ public class BusinessAccount extends Account {
             return;
         }
 
+        int timestamp = BankingSystem.getTimestamp();
         CommerciantSpending commerciantSpending = getCommerciantSpending(commerciant.getName());
-        commerciantSpending.setReceived(commerciantSpending.getReceived().add(amount));
-
-
-        AssociateData associateData = getAssociateData(user);
-        switch (associateData.role()) {
-            case EMPLOYEE -> commerciantSpending.getEmployees().add(
-                    associateData.associate().getUsername()
-            );
-            case MANAGER -> commerciantSpending.getManagers().add(
-                    associateData.associate().getUsername()
-            );
-            default -> {
-
-            }
-        }
+        commerciantSpending.getReceived().add(
+                timestamp,
+                Money.toTotal(Money.of(amount, unit))
+        );
 
+        commerciantSpending.addPayments(getAssociateData(user), 1);
     }
 }
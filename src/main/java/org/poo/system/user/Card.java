@@ -3,8 +3,8 @@ package org.poo.system.user;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.Getter;
-import lombok.Setter;
 import org.poo.io.StateWriter;
+import org.poo.system.BankingSystem;
 import org.poo.system.command.base.Command;
 import org.poo.utils.NodeConvertable;
 
@@ -34,7 +34,6 @@ public class Card implements NodeConvertable {
     private final Type cardType;
     private final String cardNumber;
 
-    @Setter
     private boolean active = true;
 
     public Card(
@@ -49,6 +48,14 @@ public class Card implements NodeConvertable {
         this.cardNumber = cardNumber;
     }
 
+    /**
+     * @param newActive whether the card can be used
+     */
+    public void setActive(final boolean newActive) {
+        BankingSystem.beforeUpdate(account.getOwner());
+        this.active = newActive;
+    }
+
     /**
      * @return the JSON representation of the {@code Card}
      */
@@ -5,7 +5,6 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.Getter;
-import lombok.Setter;
 import org.poo.io.IOUtils;
 import org.poo.io.StateWriter;
 import org.poo.system.BankingSystem;
@@ -18,6 +17,7 @@ import org.poo.system.payments.PaymentOrder;
 import org.poo.system.payments.PendingPayment;
 import org.poo.system.user.plan.ServicePlan;
 import org.poo.system.user.plan.ServicePlanFactory;
+import org.poo.utils.MergingIterator;
 import org.poo.utils.NodeConvertable;
 import org.poo.utils.Pair;
 
@@ -25,12 +25,15 @@ import java.time.LocalDate;
 import java.time.Period;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Getter
 public class User implements NodeConvertable, PaymentObserver {
+    // Ids are handed out in creation order
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    private final long id = NEXT_ID.incrementAndGet();
     private final String firstName;
     private final String lastName;
     private final String email;
@@ -40,8 +43,10 @@ public class User implements NodeConvertable, PaymentObserver {
     private final List<Account> accounts = new ArrayList<>();
     private final List<Pair<PendingPayment, Integer>> pendingPayments = new ArrayList<>();
 
-    @Setter
-    private ServicePlan servicePlan;
+    private ServicePlan.Tier planTier;
+
+    // Progress towards the automatic upgrade of the current plan
+    private int upgradeProgress = 0;
 
     public User(
             final String firstName,
@@ -55,12 +60,35 @@ public class User implements NodeConvertable, PaymentObserver {
         this.email = email;
         this.occupation = occupation;
         this.birthDate = birthDate;
-        this.servicePlan = ServicePlanFactory.getPlan(
-                this,
-                occupation.equals("student")
-                        ? ServicePlan.Tier.STUDENT
-                        : ServicePlan.Tier.STANDARD
-        );
+        this.planTier = occupation.equals("student")
+                ? ServicePlan.Tier.STUDENT
+                : ServicePlan.Tier.STANDARD;
+    }
+
+    /**
+     * @return the definition of the user's current plan
+     */
+    public ServicePlan getServicePlan() {
+        return ServicePlanFactory.getPlan(planTier);
+    }
+
+    /**
+     * Switches the user to another plan, resetting the upgrade progress
+     *
+     * @param newTier the tier of the new plan
+     */
+    public void changePlan(final ServicePlan.Tier newTier) {
+        BankingSystem.beforeUpdate(this);
+        this.planTier = newTier;
+        this.upgradeProgress = 0;
+    }
+
+    /**
+     * @param newProgress the progress towards the automatic upgrade of the current plan
+     */
+    public void setUpgradeProgress(final int newProgress) {
+        BankingSystem.beforeUpdate(this);
+        this.upgradeProgress = newProgress;
     }
 
     /**
@@ -126,46 +154,54 @@ public class User implements NodeConvertable, PaymentObserver {
 
     /**
      * Aggregates all the accounts' transactions
+     * </br>
+     * The accounts' histories are merged lazily by timestamp,
+     * equal timestamps keep the order of the accounts
      *
-     * @return a list containing all the transactions belonging to this user
+     * @return the transactions belonging to this user, sorted by timestamp
      */
-    public List<Transaction> getTransactions() {
-        return accounts
-                .stream()
-                // Check if the user owns the account (filter associate accounts)
-                .filter(account -> account.owner.equals(this))
-                .flatMap(account -> account.getTransactions().stream())
-                .sorted(Transaction::compareTo)
-                .collect(Collectors.toList());
+    public Iterable<Transaction> getTransactions() {
+        return () -> new MergingIterator<>(
+                accounts
+                        .stream()
+                        // Check if the user owns the account (filter associate accounts)
+                        .filter(account -> account.owner.equals(this))
+                        .map(account -> account.getTransactions().inTimestampOrder())
+                        .toList(),
+                Transaction::compareTo
+        );
     }
 
     /**
+     * Users are equal only to themselves, the id never changes,
+     * so users are safe to use inside hash based structures
+     *
      * @param obj the other object to compare with
      * @return whether this instance and obj are equal
      */
     @Override
-    public boolean equals(final Object obj) {
+    public final boolean equals(final Object obj) {
         if (obj instanceof User other) {
-            return firstName.equals(other.firstName)
-                    && lastName.equals(other.lastName)
-                    && email.equals(other.email)
-                    && accounts.equals(other.accounts);
+            return id == other.id;
         }
 
         return false;
     }
 
+    /**
+     * Restarts the id sequence, used between inputs so every input
+     * hands out the same ids. Users created before keep their ids
+     */
+    public static void resetIds() {
+        NEXT_ID.set(0);
+    }
+
     /**
      * @return the user's hash
      */
     @Override
-    public int hashCode() {
-        return Objects.hash(
-                firstName,
-                lastName,
-                email,
-                accounts
-        );
+    public final int hashCode() {
+        return Long.hashCode(id);
     }
 
     /**
@@ -226,6 +262,7 @@ public class User implements NodeConvertable, PaymentObserver {
      */
     @Override
     public void register(final PendingPayment payment) {
+        BankingSystem.beforeUpdate(this);
         // Retrieve the payment
         var pending = getPendingPayment(payment);
 
@@ -282,6 +319,7 @@ public class User implements NodeConvertable, PaymentObserver {
         if (entry == null) {
             return;
         }
+        BankingSystem.beforeUpdate(this);
 
         Account targetAccount = order.account();
         Amount orderAmount = order.amount();
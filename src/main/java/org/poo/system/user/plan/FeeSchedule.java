@@ -0,0 +1,126 @@
+package org.poo.system.user.plan;
+
+import org.poo.system.BankingSystem;
+import org.poo.system.exchange.Currency;
+import org.poo.system.exchange.ExchangeException;
+import org.poo.system.exchange.ExchangeProvider;
+
+import java.util.Arrays;
+
+/**
+ * The fee parameters of every plan tier, prepared for each currency
+ * </br>
+ * Entries are computed on first use and dropped whenever the exchange rates change,
+ * so computing a fee doesn't need any rate lookup
+ */
+public final class FeeSchedule {
+
+    // Thresholds and fees are defined in RON
+    private static final String FEE_CURRENCY = "RON";
+
+    /**
+     * The fee parameters of a tier for a currency
+     *
+     * @param toFeeCurrency the rate from the currency to RON
+     * @param fromFeeCurrency the rate from RON to the currency
+     * @param transactionFee the fee multiplier
+     * @param transactionThreshold the RON value under which no fee is applied
+     * @param upgradeThreshold the RON value over which a payment counts towards an upgrade
+     */
+    public record Entry(
+            double toFeeCurrency,
+            double fromFeeCurrency,
+            double transactionFee,
+            double transactionThreshold,
+            double upgradeThreshold
+    ) {
+
+        /**
+         * @param total the paid total, in the entry's currency
+         * @return whether the payment counts towards the automatic upgrade
+         */
+        public boolean countsTowardsUpgrade(final double total) {
+            return total * toFeeCurrency > upgradeThreshold;
+        }
+
+        /**
+         * @param total the paid total, in the entry's currency
+         * @return whether the payment is under the fee threshold
+         */
+        public boolean isFeeWaived(final double total) {
+            return total * toFeeCurrency < transactionThreshold;
+        }
+
+        /**
+         * Computes the fee in the same order as a conversion to RON and back would
+         *
+         * @param units the paid value, in minor units of the entry's currency
+         * @return the fee, in minor units of the entry's currency
+         */
+        public long getFee(final long units) {
+            return Math.round(units * toFeeCurrency * transactionFee * fromFeeCurrency);
+        }
+    }
+
+    // Entries indexed by tier ordinal and currency id
+    private final Entry[][] entries = new Entry[ServicePlan.Tier.values().length][];
+    private int ratesVersion = -1;
+
+    /**
+     * Retrieves the fee parameters of a plan's tier for a currency
+     *
+     * @param plan the plan whose tier parameters are used
+     * @param currency the currency of the paid amounts
+     * @return the schedule entry
+     * @throws ExchangeException if the currency can't be converted to RON
+     */
+    public Entry getEntry(
+            final ServicePlan plan,
+            final Currency currency
+    ) throws ExchangeException {
+        ExchangeProvider provider = BankingSystem.getExchangeProvider();
+
+        // Drop every entry computed using older rates
+        if (provider.getRatesVersion() != ratesVersion) {
+            Arrays.fill(entries, null);
+            ratesVersion = provider.getRatesVersion();
+        }
+
+        // Detached currencies have no id to cache their entries under
+        if (!currency.isRegistered()) {
+            return createEntry(plan, currency);
+        }
+
+        int tier = plan.getTier().ordinal();
+        if (entries[tier] == null) {
+            entries[tier] = new Entry[Currency.count()];
+        } else if (entries[tier].length <= currency.getId()) {
+            entries[tier] = Arrays.copyOf(entries[tier], Currency.count());
+        }
+
+        Entry entry = entries[tier][currency.getId()];
+        if (entry == null) {
+            entry = createEntry(plan, currency);
+            entries[tier][currency.getId()] = entry;
+        }
+
+        return entry;
+    }
+
+    private static Entry createEntry(
+            final ServicePlan plan,
+            final Currency currency
+    ) throws ExchangeException {
+        ExchangeProvider provider = BankingSystem.getExchangeProvider();
+        Currency feeCurrency = Currency.of(FEE_CURRENCY);
+
+        return new Entry(
+                provider.getRate(currency, feeCurrency),
+                provider.getRate(feeCurrency, currency),
+                plan.getTransactionFee(),
+                plan.getTransactionThreshold(),
+                plan.getUpgradeThreshold()
+        );
+    }
+
+}
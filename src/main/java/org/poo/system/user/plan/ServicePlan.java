@@ -1,20 +1,24 @@
 package org.poo.system.user.plan;
 
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
-import lombok.Singular;
 import org.poo.system.BankingSystem;
-import org.poo.system.command.UpgradePlanCommand;
 import org.poo.system.exceptions.InputException;
 import org.poo.system.exceptions.OperationException;
 import org.poo.system.exchange.Amount;
+import org.poo.system.exchange.Currency;
+import org.poo.system.exchange.Money;
 import org.poo.system.user.Account;
-import org.poo.system.user.User;
 
 import java.util.Arrays;
-import java.util.List;
 import java.util.NoSuchElementException;
 
+/**
+ * The immutable definition of a plan tier, shared by all its subscribers
+ * </br>
+ * The per-user upgrade progress is kept by the {@code User}
+ */
 @Getter @Builder
 public final class ServicePlan {
 
@@ -52,101 +56,94 @@ public final class ServicePlan {
     }
 
     private final Tier tier;
-    private final User subscriber;
 
     @Builder.Default
-    private double transactionFee = 0.0;
+    private final double transactionFee = 0.0;
 
     @Builder.Default
-    private double transactionThreshold = 0.0;
+    private final double transactionThreshold = 0.0;
 
-    @Singular
-    private final List<Double> spendingCashbacks;
+    // Indexed by spending tier
+    @Getter(AccessLevel.NONE)
+    private final double[] spendingCashbacks;
 
-    @Singular
-    private final List<Double> upgradeFees;
+    // Indexed by the ordinal of the tier to upgrade to
+    @Getter(AccessLevel.NONE)
+    private final double[] upgradeFees;
 
     @Builder.Default
-    private double upgradeThreshold = 0;
+    private final double upgradeThreshold = 0;
 
     @Builder.Default
-    private int upgradeTransactions = 0;
-
-    @Builder.Default
-    private int upgradeProgress = 0;
+    private final int upgradeTransactions = 0;
 
 
     /**
-     * Applies a fee on the given amount depending on the active plan
+     * Emits a payment that may upgrade the subscriber's plan,
+     * the upgrade itself is applied by the {@code UpgradeProcessor}
      *
+     * @param account the account that made the payment
      * @param amount the amount that was paid
-     * @return the service fee
      */
-    public Amount getFee(
+    public void trackPayment(
             final Account account,
             final Amount amount
     ) {
-        // Thresholds are in RON, convert the paid amount
-        Amount ronAmount = amount.to("RON");
-
         // Check if the plan is upgradeable through transactions
-        if (this.upgradeThreshold > 0) {
-            // Check if the transaction was over
-            // The sum needed to count the transaction
-            // Towards the upgrade
-            if (ronAmount.total() > this.upgradeThreshold) {
-                this.upgradeProgress++;
-            }
-
-            // Check if the transaction threshold was reached
-            // To perform the upgrade
-            // Also check if the current tier isn't the last one
-            if (this.upgradeProgress >= this.upgradeTransactions
-                    && this.tier.ordinal() < Tier.values().length - 1) {
-                // Upgrade the plan to the next tier (also waive the fee)
-                new UpgradePlanCommand(
-                        account.getAccountIBAN(),
-                        Tier.values()[this.tier.ordinal() + 1],
-                        BankingSystem.getTimestamp(),
-                        true
-                ).execute();
-            }
+        if (this.upgradeThreshold <= 0) {
+            return;
         }
 
+        // Check if the transaction was over
+        // The sum needed to count the transaction
+        // Towards the upgrade
+        FeeSchedule.Entry schedule = BankingSystem
+                .getFeeSchedule()
+                .getEntry(this, amount.unit());
+
+        BankingSystem.getUpgradeProcessor().request(new UpgradeProcessor.Payment(
+                account,
+                schedule.countsTowardsUpgrade(amount.total()),
+                BankingSystem.getTimestamp()
+        ));
+    }
+
+    /**
+     * Computes the fee for the given value depending on the active plan
+     *
+     * @param units the value that was paid, in minor units
+     * @param unit the currency of the value
+     * @return the service fee, in minor units of the same currency
+     */
+    public long getFee(final long units, final Currency unit) {
+        // Thresholds are in RON, use the rates prepared for the value's currency
+        FeeSchedule.Entry schedule = BankingSystem
+                .getFeeSchedule()
+                .getEntry(this, unit);
+
         // Check if the amount is under
         // The threshold after which the fee is applied (silver)
-        if (ronAmount.total() < transactionThreshold) {
-            return Amount.zero(amount.currency());
+        if (schedule.isFeeWaived(Money.toTotal(units))) {
+            return 0;
         }
 
-        // Compute the fee in RON
-        Amount ronFee = new Amount(
-                ronAmount.total()
-                        * this.transactionFee,
-                "RON"
-        );
-
-        // Return the fee in the amount's currency
-        return ronFee.to(amount.currency());
+        // Return the fee in the value's currency
+        return schedule.getFee(units);
     }
 
     /**
      * Applies the spending cashback for the given tier and active plan
      *
-     * @param amount the amount that was paid
+     * @param units the value that was paid, in minor units
      * @param spendingTier the tier awarded by the commerciant
-     * @return the amount to be deduced by the cashback
+     * @return the cashback, in minor units of the same currency
      */
-    public Amount getSpendingCashback(final Amount amount, final int spendingTier) {
-        if (this.spendingCashbacks.size() <= spendingTier) {
+    public long getSpendingCashback(final long units, final int spendingTier) {
+        if (this.spendingCashbacks.length <= spendingTier) {
             throw new OperationException("Unknown tier: " + spendingTier);
         }
 
-        return new Amount(
-                amount.total()
-                        * this.spendingCashbacks.get(spendingTier),
-                amount.currency()
-        );
+        return Math.round(units * this.spendingCashbacks[spendingTier]);
     }
 
     /**
@@ -169,7 +166,7 @@ public final class ServicePlan {
             );
         }
 
-        return new Amount(upgradeFees.get(nextTier.ordinal()), "RON");
+        return new Amount(upgradeFees[nextTier.ordinal()], "RON");
     }
 
 }
@@ -1,8 +1,6 @@
 package org.poo.system.user.plan;
 
-import org.poo.system.user.User;
-
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
 
 public final class ServicePlanFactory {
@@ -19,28 +17,28 @@ public final class ServicePlanFactory {
 
     // Spending cashbacks for each tier
     // Order: NO_TIER, 100 RON, 300 RON, 500 RON
-    private static final Map<ServicePlan.Tier, List<Double>> CASHBACKS = Map.of(
+    private static final Map<ServicePlan.Tier, double[]> CASHBACKS = Map.of(
             ServicePlan.Tier.STANDARD,
-            List.of(0.0, 1e-3, 2e-3, 25e-4),
+            new double[] {0.0, 1e-3, 2e-3, 25e-4},
             ServicePlan.Tier.STUDENT,
-            List.of(0.0, 1e-3, 2e-3, 25e-4),
+            new double[] {0.0, 1e-3, 2e-3, 25e-4},
             ServicePlan.Tier.SILVER,
-            List.of(0.0, 3e-3, 4e-3, 5e-3),
+            new double[] {0.0, 3e-3, 4e-3, 5e-3},
             ServicePlan.Tier.GOLD,
-            List.of(0.0, 5e-3, 55e-4, 7e-3)
+            new double[] {0.0, 5e-3, 55e-4, 7e-3}
     );
 
     // Upgrade fees for each tier
     // ORDER: TO_STANDARD, TO_STUDENT, TO_SILVER, TO_GOLD
-    private static final Map<ServicePlan.Tier, List<Double>> UPGRADE_FEES = Map.of(
+    private static final Map<ServicePlan.Tier, double[]> UPGRADE_FEES = Map.of(
             ServicePlan.Tier.STANDARD,
-                List.of(0.0, 0.0, 100.0, 350.0),
+                new double[] {0.0, 0.0, 100.0, 350.0},
             ServicePlan.Tier.STUDENT,
-                List.of(0.0, 0.0, 100.0, 350.0),
+                new double[] {0.0, 0.0, 100.0, 350.0},
             ServicePlan.Tier.SILVER,
-                List.of(0.0, 0.0, 0.0, 250.0),
+                new double[] {0.0, 0.0, 0.0, 250.0},
             ServicePlan.Tier.GOLD,
-                List.of(0.0, 0.0, 0.0, 0.0)
+                new double[] {0.0, 0.0, 0.0, 0.0}
     );
 
     // Number of transactions to get upgraded to GOLD
@@ -52,22 +50,27 @@ public final class ServicePlanFactory {
     // Transactions under 500 RON don't get fees applied to them
     private static final double SILVER_TRANSACTION_THRESHOLD = 500.0;
 
+    // The plan definitions shared by all the users, indexed by tier ordinal
+    private static final ServicePlan[] PLANS = Arrays
+            .stream(ServicePlan.Tier.values())
+            .map(ServicePlanFactory::createPlan)
+            .toArray(ServicePlan[]::new);
+
     /**
-     * Creates a new plan for the given user with the given tier
+     * Retrieves the shared plan definition of the given tier
      *
-     * @param subscriber the user
      * @param tier the requested tier
-     * @return the newly created plan
+     * @return the tier's plan
      */
-    public static ServicePlan getPlan(
-            final User subscriber,
-            final ServicePlan.Tier tier
-    ) {
+    public static ServicePlan getPlan(final ServicePlan.Tier tier) {
+        return PLANS[tier.ordinal()];
+    }
+
+    private static ServicePlan createPlan(final ServicePlan.Tier tier) {
         return switch (tier) {
             // Retrieve the values from the maps
             case STANDARD, STUDENT, GOLD ->
                 ServicePlan.builder()
-                        .subscriber(subscriber)
                         .tier(tier)
                         .transactionFee(FEES.get(tier))
                         .spendingCashbacks(CASHBACKS.get(tier))
@@ -76,7 +79,6 @@ public final class ServicePlanFactory {
             // Also add upgrade params and fee threshold
             case SILVER ->
                 ServicePlan.builder()
-                        .subscriber(subscriber)
                         .tier(tier)
                         .transactionFee(FEES.get(tier))
                         .spendingCashbacks(CASHBACKS.get(tier))
@@ -0,0 +1,85 @@
+package org.poo.system.user.plan;
+
+import org.poo.system.BankingSystem;
+import org.poo.system.Transaction;
+import org.poo.system.user.Account;
+import org.poo.system.user.User;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Applies the automatic plan upgrades triggered by payments
+ * </br>
+ * Plans only emit an event for every payment that may upgrade its owner,
+ * the processor counts it towards the upgrade and, once enough payments were made,
+ * changes the owner's plan and records the upgrade's transaction.
+ * Payments drain the processor right after their fee step,
+ * so the upgrade lands where it always did in the account's history
+ */
+public final class UpgradeProcessor {
+
+    /**
+     * A payment made by the subscriber of an upgradeable plan
+     *
+     * @param account the account that made the payment
+     * @param counted whether the payment counts towards the upgrade
+     * @param timestamp the timestamp of the payment
+     */
+    public record Payment(Account account, boolean counted, int timestamp) { }
+
+    private final Queue<Payment> pending = new ArrayDeque<>();
+
+    /**
+     * Queues a payment, applied on the next {@code drain}
+     *
+     * @param payment the payment to apply
+     */
+    public void request(final Payment payment) {
+        pending.add(payment);
+    }
+
+    /**
+     * Applies every queued payment, in the order they were made
+     */
+    public void drain() {
+        while (!pending.isEmpty()) {
+            apply(pending.poll());
+        }
+    }
+
+    private void apply(final Payment payment) {
+        Account account = payment.account();
+        User subscriber = account.getOwner();
+        ServicePlan plan = subscriber.getServicePlan();
+
+        if (payment.counted()) {
+            subscriber.setUpgradeProgress(subscriber.getUpgradeProgress() + 1);
+        }
+
+        // Check if the transaction threshold was reached
+        // To perform the upgrade
+        // Also check if the current tier isn't the last one
+        ServicePlan.Tier tier = plan.getTier();
+        if (subscriber.getUpgradeProgress() < plan.getUpgradeTransactions()
+                || tier.ordinal() == ServicePlan.Tier.values().length - 1) {
+            return;
+        }
+
+        // Upgrade the plan to the next tier (also waive the fee)
+        ServicePlan.Tier nextTier = ServicePlan.Tier.values()[tier.ordinal() + 1];
+        subscriber.changePlan(nextTier);
+
+        BankingSystem.log(
+                () -> "Upgraded " + subscriber.getEmail()
+                        + " to " + nextTier.toString()
+        );
+
+        account.getTransactions().add(
+                new Transaction.PlanUpgrade("Upgrade plan", payment.timestamp())
+                        .setNewPlanType(nextTier.toString())
+                        .setAccountIBAN(account.getAccountIBAN())
+        );
+    }
+
+}
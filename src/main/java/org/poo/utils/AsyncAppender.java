@@ -0,0 +1,106 @@
+package org.poo.utils;
+
+import java.io.PrintStream;
+
+/**
+ * Prints lines on a background thread, so the callers never wait for the output
+ * </br>
+ * Lines are kept inside a fixed ring buffer until the worker prints them.
+ * When the buffer is full new lines are dropped instead of blocking the caller,
+ * the number of dropped lines is printed once there is room again
+ */
+public final class AsyncAppender {
+
+    private final PrintStream out;
+    private final String[] ring;
+
+    // Lines appended, lines taken by the worker, lines printed
+    private long appended = 0;
+    private long taken = 0;
+    private long printed = 0;
+    private long dropped = 0;
+
+    public AsyncAppender(final PrintStream out, final int capacity) {
+        this.out = out;
+        this.ring = new String[capacity];
+
+        Thread worker = new Thread(this::drain, "log-appender");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Queues a line to be printed
+     *
+     * @param line the line to print
+     * @return false if the buffer is full and the line was dropped
+     */
+    public synchronized boolean append(final String line) {
+        if (appended - taken == ring.length) {
+            dropped++;
+            return false;
+        }
+
+        ring[(int) (appended % ring.length)] = line;
+        appended++;
+        notifyAll();
+
+        return true;
+    }
+
+    /**
+     * Waits until every line appended so far was printed
+     *
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public synchronized void flush() throws InterruptedException {
+        long target = appended;
+        while (printed < target) {
+            wait();
+        }
+    }
+
+    private void drain() {
+        String[] batch = new String[ring.length];
+        while (true) {
+            int count;
+            long missed;
+
+            // Take every queued line, freeing the buffer before printing
+            synchronized (this) {
+                while (taken == appended) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+
+                count = (int) (appended - taken);
+                for (int i = 0; i < count; i++) {
+                    int slot = (int) ((taken + i) % ring.length);
+                    batch[i] = ring[slot];
+                    ring[slot] = null;
+                }
+                taken = appended;
+                missed = dropped;
+                dropped = 0;
+            }
+
+            if (missed > 0) {
+                out.println("[" + missed + " log lines dropped]");
+            }
+            for (int i = 0; i < count; i++) {
+                out.println(batch[i]);
+                batch[i] = null;
+            }
+            out.flush();
+
+            synchronized (this) {
+                printed += count;
+                notifyAll();
+            }
+        }
+    }
+
+}
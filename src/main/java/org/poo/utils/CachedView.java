@@ -0,0 +1,46 @@
+package org.poo.utils;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * An immutable copy of a collection, rebuilt only after the collection changes
+ * </br>
+ * The owner of the collection calls {@code invalidate} on every mutation,
+ * the copy is made on the first read after that. Repeated reads between
+ * mutations return the same list
+ *
+ * @param <T> the type of the elements
+ */
+public final class CachedView<T> {
+
+    private final Supplier<List<T>> source;
+
+    private List<T> view = null;
+
+    /**
+     * @param source reads the current elements of the collection
+     */
+    public CachedView(final Supplier<List<T>> source) {
+        this.source = source;
+    }
+
+    /**
+     * @return an immutable list of the current elements
+     */
+    public List<T> get() {
+        if (view == null) {
+            view = List.copyOf(source.get());
+        }
+
+        return view;
+    }
+
+    /**
+     * Marks the collection as changed, dropping the current view
+     */
+    public void invalidate() {
+        view = null;
+    }
+
+}
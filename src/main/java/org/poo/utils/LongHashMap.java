@@ -0,0 +1,188 @@
+package org.poo.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hash map with primitive {@code long} keys, using open addressing
+ * </br>
+ * Keys and values are kept in two parallel arrays, probed linearly,
+ * so entries don't need a node object or a boxed key.
+ * Null values are not supported, a null slot marks a free one
+ *
+ * @param <V> the type of the values
+ */
+public final class LongHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    // The table is grown once it's more than half full
+    private static final int MAX_LOAD_SHIFT = 1;
+
+    // Constants of the 64 bit finalizer of MurmurHash3
+    private static final long MIX_1 = 0xff51afd7ed558ccdL;
+    private static final long MIX_2 = 0xc4ceb9fe1a85ec53L;
+    private static final int MIX_SHIFT = 33;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size = 0;
+
+    public LongHashMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param key the key to search for
+     * @return the value mapped to the key or null if there isn't one
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final long key) {
+        int slot = find(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * @param key the key to search for
+     * @return whether the key is mapped to a value
+     */
+    public boolean containsKey(final long key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Maps a key to a value, replacing the previous value
+     *
+     * @param key the key of the value
+     * @param value the value to store
+     * @return the previous value mapped to the key or null if there wasn't one
+     */
+    @SuppressWarnings("unchecked")
+    public V put(final long key, final V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+
+        int slot = slot(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+
+        if (size > (values.length >> MAX_LOAD_SHIFT)) {
+            rehash(values.length << 1);
+        }
+
+        return null;
+    }
+
+    /**
+     * Removes the value mapped to a key
+     * </br>
+     * The entries following the removed one are shifted back,
+     * so lookups never need to skip over deleted slots
+     *
+     * @param key the key to remove
+     * @return the removed value or null if there wasn't one
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(final long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+
+        V removed = (V) values[slot];
+        int free = slot;
+        int next = (slot + 1) & mask;
+        while (values[next] != null) {
+            // Move the entry back if the free slot is on its probing path
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[free] = null;
+        size--;
+
+        return removed;
+    }
+
+    /**
+     * @return the number of mapped keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the values inside the map, in no particular order
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        for (Object value : values) {
+            if (value != null) {
+                result.add((V) value);
+            }
+        }
+
+        return result;
+    }
+
+    private int find(final long key) {
+        int slot = slot(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    private int slot(final long key) {
+        long hash = key;
+        hash = (hash ^ (hash >>> MIX_SHIFT)) * MIX_1;
+        hash = (hash ^ (hash >>> MIX_SHIFT)) * MIX_2;
+        hash ^= hash >>> MIX_SHIFT;
+
+        return (int) hash & mask;
+    }
+
+    private void allocate(final int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private void rehash(final int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slot(oldKeys[i]);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+}
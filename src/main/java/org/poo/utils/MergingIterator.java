@@ -0,0 +1,83 @@
+package org.poo.utils;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Lazily merges several sorted iterators into a single sorted one
+ * </br>
+ * Each step is O(log k) for k sources. Elements comparing equal are returned
+ * in the order of their sources, so the result matches a stable sort
+ * of the sources' concatenation
+ *
+ * @param <T> the type of the merged elements
+ */
+public final class MergingIterator<T> implements Iterator<T> {
+
+    /**
+     * The next element of a source, along with the source's position
+     *
+     * @param <T> the type of the element
+     */
+    private static final class Head<T> {
+        private final Iterator<T> source;
+        private final int index;
+        private T element;
+
+        private Head(final Iterator<T> source, final int index) {
+            this.source = source;
+            this.index = index;
+            this.element = source.next();
+        }
+    }
+
+    private final PriorityQueue<Head<T>> heads;
+
+    public MergingIterator(
+            final List<? extends Iterator<T>> sources,
+            final Comparator<? super T> comparator
+    ) {
+        Comparator<Head<T>> byElement = (a, b) -> comparator.compare(a.element, b.element);
+        this.heads = new PriorityQueue<>(
+                Math.max(sources.size(), 1),
+                byElement.thenComparingInt(head -> head.index)
+        );
+
+        for (int i = 0; i < sources.size(); i++) {
+            if (sources.get(i).hasNext()) {
+                heads.add(new Head<>(sources.get(i), i));
+            }
+        }
+    }
+
+    /**
+     * @return whether any source has elements left
+     */
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    /**
+     * @return the smallest element left
+     */
+    @Override
+    public T next() {
+        Head<T> head = heads.poll();
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+
+        T element = head.element;
+        if (head.source.hasNext()) {
+            head.element = head.source.next();
+            heads.add(head);
+        }
+
+        return element;
+    }
+
+}
@@ -0,0 +1,108 @@
+package org.poo.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact index from {@code long} keys to values
+ * </br>
+ * Keys are kept in a sorted primitive array, with the values in a parallel array,
+ * so lookups are binary searches and each entry costs only a key and a reference.
+ * Insertions and removals shift the entries after them, this trades write speed for memory
+ *
+ * @param <V> the type of the values
+ */
+public final class SortedLongIndex<V> {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Object[] slots = new Object[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * @param key the key to search for
+     * @return the value mapped to the key or null if there isn't one
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final long key) {
+        int position = Arrays.binarySearch(keys, 0, size, key);
+        return position < 0 ? null : (V) slots[position];
+    }
+
+    /**
+     * Maps a key to a value, replacing the previous value
+     *
+     * @param key the key of the value
+     * @param value the value to store
+     * @return the previous value mapped to the key or null if there wasn't one
+     */
+    @SuppressWarnings("unchecked")
+    public V put(final long key, final V value) {
+        int position = Arrays.binarySearch(keys, 0, size, key);
+        if (position >= 0) {
+            V previous = (V) slots[position];
+            slots[position] = value;
+            return previous;
+        }
+
+        position = -position - 1;
+        if (size == keys.length) {
+            int capacity = size + (size >> 1);
+            keys = Arrays.copyOf(keys, capacity);
+            slots = Arrays.copyOf(slots, capacity);
+        }
+
+        System.arraycopy(keys, position, keys, position + 1, size - position);
+        System.arraycopy(slots, position, slots, position + 1, size - position);
+        keys[position] = key;
+        slots[position] = value;
+        size++;
+
+        return null;
+    }
+
+    /**
+     * Removes the value mapped to a key
+     *
+     * @param key the key to remove
+     * @return the removed value or null if there wasn't one
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(final long key) {
+        int position = Arrays.binarySearch(keys, 0, size, key);
+        if (position < 0) {
+            return null;
+        }
+
+        V removed = (V) slots[position];
+        System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+        System.arraycopy(slots, position + 1, slots, position, size - position - 1);
+        size--;
+        slots[size] = null;
+
+        return removed;
+    }
+
+    /**
+     * @return the number of mapped keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the values inside the index, sorted by their keys
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add((V) slots[i]);
+        }
+
+        return result;
+    }
+
+}
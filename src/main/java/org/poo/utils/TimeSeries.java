@@ -0,0 +1,137 @@
+package org.poo.utils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Accumulates values in timestamp buckets and answers range sums using prefix sums
+ * </br>
+ * Values are expected to be added in non-decreasing timestamp order,
+ * a value older than the last bucket is added to the last bucket
+ */
+public final class TimeSeries {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] timestamps = new int[INITIAL_CAPACITY];
+    private double[] prefixSums = new double[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Adds a value to the bucket of the given timestamp
+     *
+     * @param timestamp the timestamp of the value
+     * @param value the value to add
+     */
+    public void add(final int timestamp, final double value) {
+        if (size > 0 && timestamps[size - 1] >= timestamp) {
+            prefixSums[size - 1] += value;
+            return;
+        }
+
+        if (size == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            prefixSums = Arrays.copyOf(prefixSums, size * 2);
+        }
+
+        timestamps[size] = timestamp;
+        prefixSums[size] = total() + value;
+        size++;
+    }
+
+    /**
+     * @return the sum of all the values
+     */
+    public double total() {
+        return size == 0 ? 0.0 : prefixSums[size - 1];
+    }
+
+    /**
+     * Computes the sum of the values added between two timestamps
+     *
+     * @param start the first timestamp of the range (inclusive)
+     * @param end the last timestamp of the range (inclusive)
+     * @return the sum of the values inside the range
+     */
+    public double sum(final int start, final int end) {
+        if (start > end || size == 0) {
+            return 0.0;
+        }
+
+        double upToEnd = prefixSum(end);
+
+        // The range starts with the history, no need to subtract
+        if (start <= timestamps[0]) {
+            return upToEnd;
+        }
+
+        // The start is past the first bucket, so start - 1 can't overflow
+        return upToEnd - prefixSums[lastBucketUpTo(start - 1)];
+    }
+
+    /**
+     * Checks if any value was added between two timestamps
+     *
+     * @param start the first timestamp of the range (inclusive)
+     * @param end the last timestamp of the range (inclusive)
+     * @return whether the range contains at least one bucket
+     */
+    public boolean hasValues(final int start, final int end) {
+        int last = lastBucketUpTo(end);
+        return last >= 0 && timestamps[last] >= start;
+    }
+
+    /**
+     * Writes the buckets in a compact binary form
+     *
+     * @param output the destination of the buckets
+     * @throws IOException if the buckets can't be written
+     */
+    public void writeTo(final DataOutput output) throws IOException {
+        output.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            output.writeInt(timestamps[i]);
+            output.writeDouble(prefixSums[i]);
+        }
+    }
+
+    /**
+     * Replaces the buckets with the ones written by {@code writeTo}
+     *
+     * @param input the source of the buckets
+     * @throws IOException if the buckets can't be read
+     */
+    public void readFrom(final DataInput input) throws IOException {
+        size = input.readInt();
+        timestamps = new int[Math.max(size, INITIAL_CAPACITY)];
+        prefixSums = new double[timestamps.length];
+        for (int i = 0; i < size; i++) {
+            timestamps[i] = input.readInt();
+            prefixSums[i] = input.readDouble();
+        }
+    }
+
+    private double prefixSum(final int timestamp) {
+        int bucket = lastBucketUpTo(timestamp);
+        return bucket < 0 ? 0.0 : prefixSums[bucket];
+    }
+
+    /**
+     * Finds the last bucket with a timestamp lower or equal to the given one
+     *
+     * @param timestamp the timestamp to search for
+     * @return the bucket's index or -1 if there is none
+     */
+    private int lastBucketUpTo(final int timestamp) {
+        int index = Arrays.binarySearch(timestamps, 0, size, timestamp);
+        if (index >= 0) {
+            return index;
+        }
+
+        // Insertion point - 1
+        return -index - 2;
+    }
+
+}
@@ -0,0 +1,276 @@
+package org.poo.utils;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timer wheel driven by a monotonic tick counter
+ * </br>
+ * Scheduling and cancelling a timer are O(1),
+ * advancing the wheel jumps over the idle ticks straight to the next occupied slot,
+ * so it costs O(1) amortized per expired or cascaded timer, whatever the advanced gap
+ *
+ * @param <T> the type of the payload carried by the timers
+ */
+public final class TimerWheel<T> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SLOTS = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SLOTS - 1;
+    private static final int WHEEL_LEVELS = 4;
+
+    /**
+     * A scheduled timer, stored as a node of its slot's linked list
+     *
+     * @param <T> the type of the payload carried by the timer
+     */
+    public static final class Timer<T> {
+        private final long deadline;
+        private final T payload;
+        private TimerWheel<T> wheel;
+
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(
+                final TimerWheel<T> wheel,
+                final long deadline,
+                final T payload
+        ) {
+            this.wheel = wheel;
+            this.deadline = deadline;
+            this.payload = payload;
+        }
+
+        /**
+         * @return whether the timer is still waiting to fire
+         */
+        public boolean isActive() {
+            return wheel != null;
+        }
+
+        /**
+         * Removes the timer from its wheel, it will never fire
+         */
+        public void cancel() {
+            if (wheel == null) {
+                return;
+            }
+
+            wheel.size--;
+            wheel = null;
+            unlink();
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+
+    // Sentinel nodes of each slot's circular list
+    private final Timer<T>[][] slots;
+    // Bitmap of the possibly non-empty slots of each level,
+    // bits of slots emptied by cancelling are cleared lazily
+    private final long[] occupied = new long[WHEEL_LEVELS];
+    private long currentTick;
+    private int size = 0;
+
+    /**
+     * Creates an empty wheel starting at the given tick
+     *
+     * @param startTick the tick the wheel starts from
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(final long startTick) {
+        this.currentTick = startTick;
+        this.slots = (Timer<T>[][]) new Timer<?>[WHEEL_LEVELS][WHEEL_SLOTS];
+        for (Timer<T>[] level : slots) {
+            for (int i = 0; i < WHEEL_SLOTS; i++) {
+                Timer<T> sentinel = new Timer<>(null, 0, null);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                level[i] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * @return the number of active timers
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules a payload to fire once the wheel reaches the given tick
+     *
+     * @param deadline the tick at which the timer fires
+     * @param payload the payload passed to the expiry consumer
+     * @return the scheduled timer, used for cancelling it
+     */
+    public Timer<T> schedule(final long deadline, final T payload) {
+        Timer<T> timer = new Timer<>(this, deadline, payload);
+        place(timer);
+        size++;
+
+        return timer;
+    }
+
+    /**
+     * Advances the wheel up to the given tick, firing every expired timer
+     *
+     * @param tick the tick to advance to
+     * @param onExpire the consumer receiving the payloads of the expired timers
+     */
+    public void advance(final long tick, final Consumer<T> onExpire) {
+        while (currentTick < tick) {
+            // Nothing to fire, jump straight to the requested tick
+            if (size == 0) {
+                currentTick = tick;
+                return;
+            }
+
+            // Jump straight to the next tick with a slot to cascade or fire
+            long next = nextOccupiedTick();
+            if (next > tick) {
+                currentTick = tick;
+                return;
+            }
+
+            currentTick = next;
+            cascade();
+            int index = (int) (currentTick & WHEEL_MASK);
+            occupied[0] &= ~(1L << index);
+            fire(slots[0][index], onExpire);
+        }
+    }
+
+    /**
+     * @return the closest tick after the current one reaching an occupied slot
+     */
+    private long nextOccupiedTick() {
+        long next = Long.MAX_VALUE;
+        for (int level = 0; level < WHEEL_LEVELS; level++) {
+            next = Math.min(next, nextOccupiedTick(level));
+        }
+
+        return next;
+    }
+
+    /**
+     * @return the closest tick after the current one reaching an occupied slot
+     * of the given level, or {@code Long.MAX_VALUE} if the level is empty
+     */
+    private long nextOccupiedTick(final int level) {
+        int shift = level * WHEEL_BITS;
+        long turn = currentTick >> shift;
+
+        while (true) {
+            // Bit i of the rotated bitmap is the slot reached i + 1 turns from now
+            long ahead = Long.rotateRight(occupied[level], (int) ((turn + 1) & WHEEL_MASK));
+            if (ahead == 0) {
+                return Long.MAX_VALUE;
+            }
+
+            long target = turn + Long.numberOfTrailingZeros(ahead) + 1;
+            int index = (int) (target & WHEEL_MASK);
+            Timer<T> sentinel = slots[level][index];
+            if (sentinel.next != sentinel) {
+                return target << shift;
+            }
+
+            occupied[level] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * Moves the timers of the higher level slots reached
+     * by the current tick to the lower levels
+     */
+    private void cascade() {
+        for (int level = 1; level < WHEEL_LEVELS; level++) {
+            long lowerMask = (1L << (level * WHEEL_BITS)) - 1;
+            if ((currentTick & lowerMask) != 0) {
+                return;
+            }
+
+            int index = (int) ((currentTick >> (level * WHEEL_BITS)) & WHEEL_MASK);
+            occupied[level] &= ~(1L << index);
+            Timer<T> pending = detach(slots[level][index]);
+            while (pending.next != pending) {
+                Timer<T> timer = pending.next;
+                timer.unlink();
+                place(timer);
+            }
+        }
+    }
+
+    private void fire(final Timer<T> sentinel, final Consumer<T> onExpire) {
+        Timer<T> pending = detach(sentinel);
+        while (pending.next != pending) {
+            Timer<T> timer = pending.next;
+            timer.unlink();
+
+            // Timers beyond the wheel's range wrap around, keep them waiting
+            if (timer.deadline > currentTick) {
+                place(timer);
+                continue;
+            }
+
+            timer.wheel = null;
+            size--;
+            onExpire.accept(timer.payload);
+        }
+    }
+
+    /**
+     * Moves the timers of a slot to a separate list, so timers placed
+     * back into the same slot wait for its next turn instead of being visited again.
+     * The moved timers can still be cancelled while the list is drained
+     *
+     * @return the sentinel of the list holding the slot's timers
+     */
+    private Timer<T> detach(final Timer<T> sentinel) {
+        Timer<T> pending = new Timer<>(null, 0, null);
+        if (sentinel.next == sentinel) {
+            pending.prev = pending;
+            pending.next = pending;
+            return pending;
+        }
+
+        pending.next = sentinel.next;
+        pending.prev = sentinel.prev;
+        pending.next.prev = pending;
+        pending.prev.next = pending;
+        sentinel.next = sentinel;
+        sentinel.prev = sentinel;
+
+        return pending;
+    }
+
+    /**
+     * Links the timer into the slot matching its distance from the current tick
+     */
+    private void place(final Timer<T> timer) {
+        long delta = Math.max(timer.deadline - currentTick, 0);
+        long deadline = Math.max(timer.deadline, currentTick);
+
+        int level = 0;
+        while (level < WHEEL_LEVELS - 1
+                && delta >= (1L << ((level + 1) * WHEEL_BITS))) {
+            level++;
+        }
+
+        int index = (int) ((deadline >> (level * WHEEL_BITS)) & WHEEL_MASK);
+        Timer<T> sentinel = slots[level][index];
+        occupied[level] |= 1L << index;
+
+        timer.prev = sentinel.prev;
+        timer.next = sentinel;
+        sentinel.prev.next = timer;
+        sentinel.prev = timer;
+    }
+
+}
@@ -1,9 +1,14 @@
 package org.poo.utils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.Random;
-import java.util.regex.Pattern;
+import java.util.function.Predicate;
 
 public final class Utils {
     private Utils() {
@@ -23,50 +28,140 @@ public final class Utils {
 
     /**
      * Utility method for generating an IBAN code.
+     * </br>
+     * The digits are drawn from a seeded generator, so the same sequence
+     * of calls always produces the same IBANs (the reference outputs depend on them).
+     * A drawn IBAN that is already taken is skipped, the next draw is used instead
      *
+     * @param taken checks whether an IBAN is already in use
      * @return the IBAN as String
      */
-    public static String generateIBAN() {
-        StringBuilder sb = new StringBuilder(RO_STR);
-        for (int i = 0; i < RO_STR.length(); i++) {
-            sb.append(ibanRandom.nextInt(DIGIT_BOUND));
-        }
+    public static String generateIBAN(final Predicate<String> taken) {
+        char[] iban = new char[IBAN_LENGTH];
+        RO_STR.getChars(0, RO_STR.length(), iban, 0);
+        POO_STR.getChars(0, POO_STR.length(), iban, BANK_OFFSET);
 
-        sb.append(POO_STR);
-        for (int i = 0; i < DIGIT_GENERATION; i++) {
-            sb.append(ibanRandom.nextInt(DIGIT_BOUND));
-        }
+        String generated;
+        do {
+            drawDigits(ibanRandom, iban, RO_STR.length(), BANK_OFFSET);
+            drawDigits(ibanRandom, iban, BANK_OFFSET + POO_STR.length(), IBAN_LENGTH);
+            generated = new String(iban);
+        } while (taken.test(generated));
 
-        return sb.toString();
+        return generated;
     }
 
-    private static final Pattern IBAN_REGEX = Pattern.compile(
-            RO_STR + "[0-9]{" + RO_STR.length() + "}"
-                    + POO_STR + "[0-9]{" + DIGIT_GENERATION + "}"
-    );
+    // IBAN layout: RO, check digits, POOB, account digits
+    private static final int BANK_OFFSET = 2 * RO_STR.length();
+    private static final int IBAN_LENGTH = BANK_OFFSET + POO_STR.length() + DIGIT_GENERATION;
+    // 10^16, the number of possible account digit sequences
+    private static final long ACCOUNT_DIGITS_RANGE = 10_000_000_000_000_000L;
 
     /**
      * Utility method for verifying if a string is a valid IBAN
+     * </br>
+     * Checks the fixed layout character by character, without allocating.
+     * This is the only place deciding whether a string is an IBAN or an alias
      *
      * @param iban the string to check
      * @return whether the string is an IBAN or not
      */
     public static boolean verifyIBAN(final String iban) {
-        return IBAN_REGEX.matcher(iban).matches();
+        if (iban == null || iban.length() != IBAN_LENGTH) {
+            return false;
+        }
+
+        return iban.startsWith(RO_STR)
+                && isDigits(iban, RO_STR.length(), BANK_OFFSET)
+                && iban.startsWith(POO_STR, BANK_OFFSET)
+                && isDigits(iban, BANK_OFFSET + POO_STR.length(), IBAN_LENGTH);
+    }
+
+    /**
+     * Encodes an IBAN into a number, keeping only its digits
+     * </br>
+     * The layout is fixed, so different IBANs are always encoded differently
+     *
+     * @param iban the IBAN to encode
+     * @return the encoded IBAN or -1 if the string is not an IBAN
+     */
+    public static long encodeIBAN(final String iban) {
+        if (!verifyIBAN(iban)) {
+            return -1;
+        }
+
+        long checkDigits = parseDigits(iban, RO_STR.length(), BANK_OFFSET);
+        long accountDigits = parseDigits(iban, BANK_OFFSET + POO_STR.length(), IBAN_LENGTH);
+
+        return checkDigits * ACCOUNT_DIGITS_RANGE + accountDigits;
+    }
+
+    /**
+     * Encodes a card number into a number
+     *
+     * @param cardNumber the card number to encode
+     * @return the encoded card number or -1 if the string is not a card number
+     */
+    public static long encodeCardNumber(final String cardNumber) {
+        if (cardNumber == null
+                || cardNumber.length() != DIGIT_GENERATION
+                || !isDigits(cardNumber, 0, DIGIT_GENERATION)) {
+            return -1;
+        }
+
+        return parseDigits(cardNumber, 0, DIGIT_GENERATION);
+    }
+
+    private static long parseDigits(final String string, final int start, final int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * DIGIT_BOUND + (string.charAt(i) - '0');
+        }
+
+        return value;
+    }
+
+    private static boolean isDigits(final String string, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            char c = string.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     /**
      * Utility method for generating a card number.
+     * </br>
+     * Same as {@code generateIBAN}, the numbers are deterministic
+     * and the ones already taken are skipped
      *
+     * @param taken checks whether a card number is already in use
      * @return the card number as String
      */
-    public static String generateCardNumber() {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < DIGIT_GENERATION; i++) {
-            sb.append(cardRandom.nextInt(DIGIT_BOUND));
-        }
+    public static String generateCardNumber(final Predicate<String> taken) {
+        char[] number = new char[DIGIT_GENERATION];
+
+        String generated;
+        do {
+            drawDigits(cardRandom, number, 0, DIGIT_GENERATION);
+            generated = new String(number);
+        } while (taken.test(generated));
 
-        return sb.toString();
+        return generated;
+    }
+
+    private static void drawDigits(
+            final Random random,
+            final char[] digits,
+            final int start,
+            final int end
+    ) {
+        for (int i = start; i < end; i++) {
+            digits[i] = (char) ('0' + random.nextInt(DIGIT_BOUND));
+        }
     }
 
     /**
@@ -78,6 +173,37 @@ public final class Utils {
         return LocalDate.parse(dateString);
     }
 
+    /**
+     * Saves the state of the generators, so the same numbers can be generated again
+     *
+     * @return the serialized state
+     * @throws IOException if the state can't be serialized
+     */
+    public static byte[] saveRandom() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(ibanRandom);
+            output.writeObject(cardRandom);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Restores the state of the generators saved by {@code saveRandom}
+     *
+     * @param state the serialized state
+     * @throws IOException if the state can't be deserialized
+     */
+    public static void restoreRandom(final byte[] state) throws IOException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(state))) {
+            ibanRandom = (Random) input.readObject();
+            cardRandom = (Random) input.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Invalid generator state", e);
+        }
+    }
+
     /**
      * Resets the seeds between runs.
      */